@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package experiment;
+
+import polytope.DynamicPolytope;
+import polytope.FullDimensionPolytope;
+import polytope.Point;
+import polytope.Quickhull;
+import random.FirstMarkovChain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+public class HullConsistency {
+
+    /**
+     * Checks the convex hulls of random clouds of lattice points in dimensions 2 to 5: no point of a cloud may be above
+     * a facet of its hull, and the sequential and parallel Quickhull must find the same extremal points.
+     * Then checks the volumes maintained along the Markov chain in the same dimensions: every few steps, the hull of the
+     * extremal points of the current polytope is computed again, and its volume must be the maintained one.
+     * Prints, for each dimension, the number of clouds whose hulls are wrong, then the number of wrong volumes.
+     * @param args is useless.
+     */
+    public static void main(String [] args){
+        checkClouds();
+        checkVolumes();
+    }
+
+    private static void checkClouds(){
+        int numberOfClouds=10;
+        int numberOfPoints=20000;
+        int boxSize=20;
+        Random random=new Random(0);
+
+        for(int d=2;d<=5;d++){
+            int failures=0;
+            for(int i=0;i<numberOfClouds;i++){
+                ArrayList<Point> cloud=new ArrayList<>();
+                for(int j=0;j<numberOfPoints;j++){
+                    int [] coordinates=new int[d];
+                    for(int k=0;k<d;k++)
+                        coordinates[k]=random.nextInt(boxSize+1);
+                    cloud.add(new Point(coordinates));
+                }
+                FullDimensionPolytope sequential=Quickhull.quickHull(new ArrayList<>(cloud),d);
+                FullDimensionPolytope parallel=Quickhull.parallelQuickHull(cloud,d);
+                if(!sequential.encloses(cloud) || !parallel.encloses(cloud)
+                        || !new HashSet<>(sequential.getPoints()).equals(new HashSet<>(parallel.getPoints())))
+                    failures++;
+            }
+            System.out.println(d+" "+failures);
+        }
+    }
+
+    private static void checkVolumes(){
+        int numberOfSteps=20000;
+        int period=100;
+        int boxSize=10;
+
+        for(int d=2;d<=5;d++){
+            int failures=0;
+            FirstMarkovChain fmc=new FirstMarkovChain(d,boxSize);
+            DynamicPolytope lp=fmc.initialize();
+            for(int j=1;j<=numberOfSteps;j++){
+                lp=fmc.nextStep();
+                if(j%period==0){
+                    FullDimensionPolytope rebuilt=Quickhull.quickHull(new ArrayList<>(lp.getPoints()),d);
+                    if(!rebuilt.getNormalizedVolume().equals(lp.getNormalizedVolume()))
+                        failures++;
+                }
+            }
+            System.out.println(d+" "+failures);
+        }
+    }
+}
@@ -33,11 +33,13 @@ package experiment;
 import polytope.*;
 import random.FirstMarkovChain;
 
+import java.util.List;
+
 public class SingleObject {
     public static void main(String [] args){
         FirstMarkovChain fmc=new FirstMarkovChain(3,8);
         System.out.println("Initialisation:");
-        FullDimensionPolytope lp=fmc.initialize();
+        DynamicPolytope lp=fmc.initialize();
         System.out.println(lp);
 
         for(int i=0;i<100000;i++) {
@@ -45,9 +47,10 @@ public class SingleObject {
         }
         lp.printToFile("test.plot");
         System.out.println("Résultat \n"+lp);
-        for(Facet f:lp.getFacets())
-            System.out.println(f);
-        System.out.println("Taille: "+lp.getPoints().size()+" "+lp.getFacets().size());
+        List<List<Point>> faces=lp.getFaces();
+        for(List<Point> face:faces)
+            System.out.println(face);
+        System.out.println("Taille: "+lp.getPoints().size()+" "+faces.size());
 
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package polytope;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * A lattice polytope whose extremal points can be added and removed one at a time, which is the state of the Markov
+ * chains. The extremal points of such a polytope are always in strictly convex position.
+ * The volume of the polytope, multiplied by d! so that it is an integer, is updated by the engines each time an extremal
+ * point is added or removed.
+ */
+public abstract class DynamicPolytope extends LatticePolytope {
+    private long normalizedVolume; //d! times the volume, while it fits in a long.
+    private BigInteger bigNormalizedVolume; //d! times the volume, once it doesn't fit in a long, null before.
+
+    /**
+     * Replaces the polytope by the simplex whose vertices are given as parameter, if they are affinely independent.
+     * @param pPoints a list of d+1 d-dimensional points
+     * @return true if pPoints contains (d+1) affinely independant points, false otherwise.
+     */
+    public abstract boolean createSimplex(List<Point> pPoints);
+
+    /**
+     * Adds p to the extremal points of the polytope, unless p is not outside the polytope or an extremal point of the
+     * polytope would not be extremal anymore.
+     * @param p a d-dimensional point.
+     * @return true if p has been added, false otherwise.
+     */
+    public abstract boolean addExtremalPoint(Point p);
+
+    /**
+     * Removes the extremal point p from the polytope, if the polytope stays full-dimensional.
+     * @param p an extremal point of the polytope.
+     * @return true if p has been removed, false if the polytope would not be full-dimensional anymore.
+     */
+    public abstract boolean removeExtremalPoint(Point p);
+
+    /**
+     * Returns the facets of the polytope, each one given by its vertices.
+     * @return the list of facets of the polytope.
+     */
+    public abstract List<List<Point>> getFaces();
+
+    /**
+     * Returns d! times the volume of the polytope, which is an integer since its vertices are lattice points.
+     * Time and Space Complexity: O(1)
+     * @return d! times the volume of the polytope.
+     */
+    public BigInteger getNormalizedVolume(){
+        return (bigNormalizedVolume!=null)?bigNormalizedVolume:BigInteger.valueOf(normalizedVolume);
+    }
+
+    /**
+     * Returns the volume of the polytope.
+     * Time Complexity: O(d) plus the cost of getNormalizedVolume.
+     * @return the volume of the polytope.
+     */
+    public double getVolume(){
+        double factorial=1;
+        for(int i=2;i<=dimension;i++)
+            factorial*=i;
+        return getNormalizedVolume().doubleValue()/factorial;
+    }
+
+    /**
+     * Sets d! times the volume of the polytope.
+     * @param volume d! times the volume of the polytope.
+     */
+    protected void setNormalizedVolume(long volume){
+        normalizedVolume=volume;
+        bigNormalizedVolume=null;
+    }
+
+    /**
+     * Adds delta to d! times the volume of the polytope, switching to BigIntegers if the sum overflows.
+     * Time and Space Complexity: O(1) while the volume fits in a long.
+     * @param delta d! times the volume of the region added to the polytope, or the opposite for a removed region.
+     */
+    protected void addNormalizedVolume(long delta){
+        if(bigNormalizedVolume==null) {
+            try {
+                normalizedVolume = Math.addExact(normalizedVolume, delta);
+                return;
+            } catch (ArithmeticException e) {
+                bigNormalizedVolume = BigInteger.valueOf(normalizedVolume);
+            }
+        }
+        addNormalizedVolume(BigInteger.valueOf(delta));
+    }
+
+    /**
+     * Same as addNormalizedVolume on a long.
+     * @param delta d! times the volume of the region added to the polytope, or the opposite for a removed region.
+     */
+    protected void addNormalizedVolume(BigInteger delta){
+        BigInteger sum=((bigNormalizedVolume!=null)?bigNormalizedVolume:BigInteger.valueOf(normalizedVolume)).add(delta);
+        if(sum.bitLength()<64) {
+            normalizedVolume=sum.longValue();
+            bigNormalizedVolume=null;
+        }
+        else
+            bigNormalizedVolume=sum;
+    }
+}
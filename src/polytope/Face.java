@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package polytope;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A face of a FullDimensionPolytope (a facet or a ridge), defined by the sorted ids of the polytope's extremal points
+ * it contains. The ids point into the VertexTable of the polytope.
+ */
+public abstract class Face extends LatticePolytope {
+    protected VertexTable table;
+    protected int [] vertices;
+
+    /**
+     * Creates a face whose extremal points are given by their ids.
+     * @param pTable the table of the polytope's extremal points.
+     * @param pVertices a sorted tabular of ids of points of pTable.
+     */
+    Face(VertexTable pTable,int [] pVertices){
+        reset(pTable,pVertices);
+    }
+
+    /**
+     * Gives new extremal points to the face, when it is reused by a polytope.
+     * @param pTable the table of the polytope's extremal points.
+     * @param pVertices a sorted tabular of ids of points of pTable.
+     */
+    void reset(VertexTable pTable,int [] pVertices){
+        table=pTable;
+        vertices=pVertices;
+        dimension=pTable.getDimension();
+    }
+
+    /**
+     * Returns the sorted ids of the face's extremal points in the polytope's VertexTable.
+     * @return the sorted ids of the face's extremal points.
+     */
+    public int [] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns a read-only view of the face's extremal points, sorted by id.
+     * @return a read-only view of the face's extremal points.
+     */
+    @Override
+    public List<Point> getPoints() {
+        return new AbstractList<Point>() {
+            @Override
+            public Point get(int index) {
+                return table.getPoint(vertices[index]);
+            }
+
+            @Override
+            public int size() {
+                return vertices.length;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return (o instanceof Point) && containsExtremalPoint((Point)o);
+            }
+        };
+    }
+
+    @Override
+    public boolean containsExtremalPoint(Point p) {
+        int id=table.idOf(p);
+        return id>=0 && containsVertex(id);
+    }
+
+    /**
+     * Tests if the vertex whose id is given belongs to the face.
+     * Time Complexity: O(log(|vertices|)), Space Complexity: O(1)
+     * @param id the id of a vertex of the polytope.
+     * @return true if the vertex belongs to the face, false otherwise.
+     */
+    public boolean containsVertex(int id){
+        return Arrays.binarySearch(vertices,id)>=0;
+    }
+
+    /**
+     * Adds an extremal point to the face. The point must already belong to the polytope's VertexTable.
+     * @param p a d-dimensional point.
+     */
+    @Override
+    public void addPoint(Point p){
+        addVertex(table.idOf(p));
+    }
+
+    /**
+     * Adds the vertex whose id is given to the face, unless it already belongs to it.
+     * Time and Space Complexity: O(|vertices|)
+     * @param id the id of a vertex of the polytope.
+     * @return true if the vertex has been added, false if it already belonged to the face.
+     */
+    boolean addVertex(int id){
+        if(containsVertex(id))
+            return false;
+        vertices=insert(vertices,id);
+        return true;
+    }
+
+    /**
+     * Removes the vertex whose id is given from the face.
+     * Time and Space Complexity: O(|vertices|)
+     * @param id the id of a vertex of the face.
+     */
+    void removeVertex(int id){
+        int pos=Arrays.binarySearch(vertices,id);
+        if(pos<0)
+            throw new RuntimeException("Vertex "+id+" doesn't belong to the face");
+        int [] res=new int[vertices.length-1];
+        System.arraycopy(vertices,0,res,0,pos);
+        System.arraycopy(vertices,pos+1,res,pos,res.length-pos);
+        vertices=res;
+    }
+
+    @Override
+    public boolean equals(Object o) throws RuntimeException {
+        if((o instanceof Face) && ((Face)o).table==table)
+            return Arrays.equals(vertices,((Face)o).vertices);
+        return super.equals(o);
+    }
+
+    /**
+     * Returns a copy of a sorted tabular of ids in which id has been inserted.
+     * Time and Space Complexity: O(|ids|)
+     * @param ids a sorted tabular of ids.
+     * @param id an id which does not belong to ids.
+     * @return a new sorted tabular containing ids and id.
+     */
+    static int [] insert(int [] ids,int id){
+        int pos=-Arrays.binarySearch(ids,id)-1;
+        if(pos<0)
+            throw new RuntimeException("Vertex "+id+" already belongs to the face");
+        int [] res=new int[ids.length+1];
+        System.arraycopy(ids,0,res,0,pos);
+        res[pos]=id;
+        System.arraycopy(ids,pos,res,pos+1,ids.length-pos);
+        return res;
+    }
+
+    /**
+     * Computes the intersection of two sorted tabulars of ids with a merge.
+     * Time Complexity: O(|a|+|b|), Space Complexity: O(min(|a|,|b|))
+     * @param a a sorted tabular of ids.
+     * @param b a sorted tabular of ids.
+     * @return a sorted tabular containing the ids that belong to a and b.
+     */
+    static int [] intersection(int [] a,int [] b){
+        int [] res=new int[Math.min(a.length,b.length)];
+        int i=0,j=0,k=0;
+        while(i<a.length && j<b.length){
+            if(a[i]<b[j])
+                i++;
+            else if(a[i]>b[j])
+                j++;
+            else {
+                res[k++] = a[i++];
+                j++;
+            }
+        }
+        return (k==res.length)?res:Arrays.copyOf(res,k);
+    }
+}
@@ -37,14 +37,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 
-public class Facet extends LatticePolytope{
-
+public class Facet extends Face{
     private HashSet<Ridge> ridges=new HashSet<>();
 
 
     private Point insidePoint;
-    private GaussianEliminationLite normal;
+    private Hyperplane hyperplane;
     private int visibilityFromLastPoint;
+    private ArrayList<Point> outsideSet; //points above the facet that Quickhull still has to process.
+    private int slot=-1; //index of the facet in the list of facets of its polytope, -1 if it isn't in a polytope.
 
     /**
      * Returns an extremal point of the polytope that doesn't belong to the facet.
@@ -54,51 +55,140 @@ public class Facet extends LatticePolytope{
         return insidePoint;
     }
 
+    /**
+     * Replaces the interior point of the facet, when the previous one is removed from the polytope. The orientation of
+     * the facet is not computed again.
+     * @param pInside an extremal point of the polytope below the facet.
+     */
+    void setInsidePoint(Point pInside) {
+        insidePoint = pInside;
+    }
+
     /**
      * Defines a d-dimensional facet using a list of points. Generates a exception if the list of points does not contain at least
      * d affinely independent points. Also computes its normal vector and uses the pOutside point to decide in which direction
      * is the polytope's interior.
-     * @param points list of points from which the facet will be created
+     * @param pTable the table of the polytope's extremal points.
+     * @param pVertices sorted ids of the points from which the facet will be created
+     * @param pOutside an extremal point of the polytope that doesn't belong to the facet.
+     */
+    Facet(VertexTable pTable,int [] pVertices, Point pOutside) {
+        this(pTable,pVertices,pOutside,null);
+    }
+
+    /**
+     * Defines a d-dimensional facet whose hyperplane is already known, oriented so that pOutside is below it.
+     * @param pTable the table of the polytope's extremal points.
+     * @param pVertices sorted ids of the points from which the facet will be created
      * @param pOutside an extremal point of the polytope that doesn't belong to the facet.
+     * @param pHyperplane the hyperplane containing the points, or null if it has to be computed.
      */
-    Facet(ArrayList<Point> points, Point pOutside) {
+    Facet(VertexTable pTable,int [] pVertices, Point pOutside, Hyperplane pHyperplane) {
+        super(pTable,pVertices);
+        orient(pOutside,pHyperplane);
+    }
+
+    /**
+     * Reuses a facet released by a polytope as a new facet, keeping the storage of its set of ridges.
+     * @param pTable the table of the polytope's extremal points.
+     * @param pVertices sorted ids of the points from which the facet will be created
+     * @param pOutside an extremal point of the polytope that doesn't belong to the facet.
+     * @param pHyperplane the hyperplane containing the points, or null if it has to be computed.
+     */
+    void reset(VertexTable pTable,int [] pVertices, Point pOutside, Hyperplane pHyperplane) {
+        reset(pTable,pVertices);
+        ridges.clear();
+        outsideSet=null;
+        slot=-1;
+        orient(pOutside,pHyperplane);
+    }
+
+    /**
+     * Sets the hyperplane of the facet, computing it if it isn't given, and orients it so that pOutside is below it.
+     * @param pOutside an extremal point of the polytope that doesn't belong to the facet.
+     * @param pHyperplane the hyperplane containing the points, or null if it has to be computed.
+     */
+    private void orient(Point pOutside,Hyperplane pHyperplane){
         insidePoint=pOutside;
-        this.points = points;
-        this.dimension=pOutside.getDimension();
-        if(points.contains(pOutside))
+        if(containsExtremalPoint(pOutside))
             throw new RuntimeException("Non mais sérieux");
-        if(points.size()<dimension)
-            throw new RuntimeException("This list of points should contain at least "+dimension+ "points but instead contains "+points.size());
-        NormalVector();
+        if(vertices.length<dimension)
+            throw new RuntimeException("This list of points should contain at least "+dimension+ "points but instead contains "+vertices.length);
+        if(pHyperplane==null)
+            NormalVector();
+        else
+            hyperplane=pHyperplane;
         setDirection(pOutside);
     }
 
+    /**
+     * Returns the points above the facet assigned to it by Quickhull, or null if there are none.
+     * @return the points above the facet assigned to it by Quickhull, or null if there are none.
+     */
+    ArrayList<Point> getOutsideSet() {
+        return outsideSet;
+    }
+
+    void setOutsideSet(ArrayList<Point> pOutsideSet) {
+        outsideSet = pOutsideSet;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    void setSlot(int pSlot) {
+        slot = pSlot;
+    }
+
+    /**
+     * Returns the hyperplane of the facet, oriented so that the interior of the polytope is below it.
+     * @return the hyperplane of the facet.
+     */
+    public Hyperplane getHyperplane() {
+        return hyperplane;
+    }
+
     /**
      * Computes the normal vector of the facet.
-     * Time complexity: O(d^2), Space Complexity: O(d^2) in the worst case and O(1) in the best case.
+     * Time complexity: O(1) in dimensions 2 and 3, O(d^3) for a simplex and O(|vertices|*d^3) otherwise. Space Complexity: O(d^2) in the worst case and O(1) in the best case.
      */
     private void NormalVector(){
-        normal= new GaussianEliminationLite(points,points.get(0).getDimension());
+        hyperplane=hyperplaneThrough(table,vertices);
     }
 
     /**
-     * Computes the cross product of a d-dimensional point p and the normal vector of the facet.
-     * Time Complexity: O(d), Space Commplexity: O(1).
-     * @param p a point
-     * @return the cross product of a point p and the normal vector.
+     * Computes the hyperplane through the extremal points of a face, oriented arbitrarily. In dimensions 2 and 3, any d
+     * points of a face are affinely independent, since they are in strictly convex position. From dimension 4, d of them
+     * may lie on a (d-2)-flat (for instance four vertices of a square ridge), so d affinely independent points are
+     * chosen greedily.
+     * Time complexity: O(1) in dimensions 2 and 3, O(d^3) for d points and O(|ids|*d^3) otherwise.
+     * @param table the table containing the points.
+     * @param ids the sorted ids of points spanning a hyperplane.
+     * @return the hyperplane through the points.
      */
-    private BigInteger direction(Point p){
-        BigInteger sum=BigInteger.ZERO;
-        BigInteger [] alpha=normal.getSolution();
-        for(int i=0;i<p.getDimension();i++)
-            sum =  sum.add(alpha[i].multiply(BigInteger.valueOf(p.getCoordinate(i))));
-        return sum;
+    static Hyperplane hyperplaneThrough(VertexTable table,int [] ids){
+        int dimension=table.getDimension();
+        if(ids.length==dimension || dimension<4)
+            return Hyperplane.through(table,ids);
+        int [] independent=new int[dimension];
+        int count=0;
+        for(int k=0;k<ids.length && count<dimension;k++){
+            independent[count]=ids[k];
+            if(GaussianEliminationLite.getRank(table.getCoordinates(),dimension,independent,count+1)==count+1)
+                count++;
+        }
+        if(count<dimension)
+            throw new RuntimeException("The points don't span a hyperplane");
+        return Hyperplane.through(table,independent);
     }
 
+    /**
+     * Compares the direction of p with beta, and stores the result in visibilityFromLastPoint.
+     * @param p a point.
+     */
     private void computeVisibility(Point p){
-        BigInteger dir=direction(p);
-        BigInteger beta=normal.getBeta();
-        visibilityFromLastPoint=dir.compareTo(beta);
+        visibilityFromLastPoint=hyperplane.side(p);
     }
 
     /**
@@ -120,6 +210,19 @@ public class Facet extends LatticePolytope{
         //return  (visibilityFromLastPoint>0);
     }
 
+    /**
+     * Batch version of isAbove on a block of points stored in a flat coordinate buffer. As with isAbove, the result for
+     * the last point of the block is kept for lastPointOnTheHyperplane.
+     * Time Complexity: O(count*d), Space Commplexity: O(1).
+     * @param points a flat buffer of coordinates, the k-th point being stored at positions k*d..(k+1)*d-1.
+     * @param count the number of points of the block, at least one.
+     * @param sides a tabular in which the side of the k-th point is stored at position k: 1 if the point is above the facet.
+     */
+    void sides(int [] points,int count,int [] sides){
+        hyperplane.sides(points,count,sides);
+        visibilityFromLastPoint=sides[count-1];
+    }
+
     public boolean isPointOnTheHyperplane(Point p){
         computeVisibility(p);
         return (visibilityFromLastPoint==0);
@@ -142,7 +245,7 @@ public class Facet extends LatticePolytope{
     private void setDirection(Point pInside){
         computeVisibility(pInside);
         if(visibilityFromLastPoint>0)
-            normal.inverse();
+            hyperplane=hyperplane.opposite();
     }
 
     /**
@@ -154,8 +257,9 @@ public class Facet extends LatticePolytope{
      */
     public Facet getNeighbor2D(Point p) {
         Ridge res = null;
+        int id=table.idOf(p);
         for(Ridge r:ridges){
-            if((r.getPoints().contains(p))) {
+            if(r.containsVertex(id)) {
                 res = r;
                 break;
             }
@@ -201,32 +305,34 @@ public class Facet extends LatticePolytope{
         }
     }
 
-    /**
-     * Computes the distance between a d-dimensional point and the current facet.
-     * Time Complexity: O(d), Space complexity: O(1)
-     * @param point a d-dimensional point
-     * @return the distance between a d-dimensional point and the current facet.
-     */
-    private BigInteger distance(Point point){
-        BigInteger res=BigInteger.ZERO;
-        BigInteger [] alpha=normal.getSolution();
-        for(int i=0;i<point.getDimension();i++)
-           res= res.add(alpha[i].multiply(BigInteger.valueOf(point.getCoordinate(i))).subtract(alpha[i].multiply(BigInteger.valueOf(points.get(0).getCoordinate(i)))));
-        return res;
-    }
-
     /**
      * Computes the most distant d-dimensional point to the current facet amongst a given list.
+     * Distances are computed with longs, unless the normal vector doesn't fit in longs or an overflow occurs.
      * Time Complexity: O(|outside|*d), Space Complexity: O(1)
      * @param outside a list of d-dimensional points.
      * @return the position of the most distant d-dimensional point to the current facet amongst a given list.
      */
     private int mostDistantPoint(ArrayList<Point> outside){
+        try {
+            int posMin = 0;
+            long distMin = hyperplane.longValueAt(outside.get(0));
+            long dist;
+            for (int i = 1; i < outside.size(); i++) {
+                dist = hyperplane.longValueAt(outside.get(i));
+                if (distMin < dist) {
+                    distMin = dist;
+                    posMin = i;
+                }
+            }
+            return posMin;
+        } catch (ArithmeticException e) {
+            //A distance overflows: falls back to BigIntegers.
+        }
         int posMin=0;
-        BigInteger distMin=distance(outside.get(0));
+        BigInteger distMin=hyperplane.valueAt(outside.get(0));
         BigInteger dist;
         for(int i=1;i<outside.size();i++) {
-            dist=distance(outside.get(i));
+            dist=hyperplane.valueAt(outside.get(i));
             if(distMin.compareTo(dist)<0){
                 distMin=dist;
                 posMin=i;
@@ -238,18 +344,13 @@ public class Facet extends LatticePolytope{
 
     /**
      * Computes the intersection between the set of points of the current facet and the one given as a parameter
-     * and returns it a a ridge.
-     * Time Complexity: O(|this.points|*|f.points|), Space complexity: O(|this.points|)
+     * and returns it a a ridge. Since both lists of ids are sorted, the intersection is computed with a merge.
+     * Time Complexity: O(|this.points|+|f.points|), Space complexity: O(|this.points|)
      * @param f a facet.
      * @return a ridge containing the intersection between the set of points of the current facet and the one given as a parameter
      */
     public Ridge intersection(Facet f){
-        ArrayList<Point> intersection=new ArrayList<>();
-        for(Point p:points){
-            if(f.getPoints().contains(p))
-                intersection.add(p);
-        }
-        return new Ridge(intersection,this,f);
+        return new Ridge(Face.intersection(vertices,f.vertices),this,f);
     }
 
     /**
@@ -32,10 +32,21 @@ package polytope;
 
 import toolkit.GaussianEliminationLite;
 
+import java.math.BigInteger;
 import java.util.*;
 
-public class FullDimensionPolytope extends LatticePolytope {
+public class FullDimensionPolytope extends DynamicPolytope {
+    private VertexTable vertices;
     private ArrayList<Facet> facets=new ArrayList<>();
+    private ArrayList<ArrayList<Facet>> incidence=new ArrayList<>(); //facets containing each vertex, indexed by id.
+    private int [] basis; //ids of d+1 affinely independent vertices.
+    private Point [] basisPoints; //vertices whose ids are stored in basis, used to detect a stale basis.
+    private int [] center; //sum of the points of the basis, i.e. d+1 times a point in the interior of the polytope.
+    private Facet hint; //facet from which point location starts.
+    private Quickhull builder; //work structures of the insertions and deletions, created on first use.
+    private ArrayList<Facet> freeFacets=new ArrayList<>(); //facets removed from the polytope, reused by newFacet.
+    private ArrayList<Ridge> freeRidges=new ArrayList<>(); //ridges of the removed facets, reused by newRidge.
+    private boolean volumeComputed; //true if the normalized volume has been computed, and is updated by every step.
     //private HashSet<Facet> facets=new HashSet<>();
 
 
@@ -45,16 +56,61 @@ public class FullDimensionPolytope extends LatticePolytope {
      */
     public FullDimensionPolytope(int pDimension) {
         dimension=pDimension;
+        vertices=new VertexTable(pDimension);
     }
 
     /**
-     * Add p to the list of points, remove the list of facets oldF, and add the list of facets newF.
-     * @param p a point to add
+     * Creates a new instance of a pDimension-dimensional FullDimensionPolytope, updated with an existing builder.
+     * @param pDimension is the dimension of the polytope.
+     * @param pBuilder the builder whose work structures are used to update the polytope, or null to create one on
+     *                 first use.
+     */
+    FullDimensionPolytope(int pDimension,Quickhull pBuilder) {
+        this(pDimension);
+        builder=pBuilder;
+    }
+
+    /**
+     * Returns the builder of the polytope, creating it if needed.
+     * @return the builder of the polytope.
+     */
+    Quickhull getBuilder(){
+        if(builder==null)
+            builder=new Quickhull();
+        return builder;
+    }
+
+    /**
+     * Returns the table containing the extremal points of the polytope.
+     * @return the table containing the extremal points of the polytope.
+     */
+    @Override
+    public VertexTable getPoints() {
+        return vertices;
+    }
+
+    @Override
+    public void addPoint(Point p) {
+        vertices.add(p);
+    }
+
+    /**
+     * Adds p with the incremental convex hull.
+     * @param p a d-dimensional point.
+     * @return true if p has been added, false otherwise.
+     */
+    @Override
+    public boolean addExtremalPoint(Point p) {
+        return getBuilder().insert(this,p);
+    }
+
+    /**
+     * Remove the list of facets oldF, and add the list of facets newF.
+     * The new extremal point must have been added to the VertexTable before the new facets were created.
      * @param newF a list of facets to add
      * @param oldF a list of points to remove
      */
-    public void addExtremalPointAndReplaceFacets(Point p,Collection<Facet> newF,Collection<Facet> oldF){
-        points.add(p);
+    public void replaceFacets(Collection<Facet> newF,Collection<Facet> oldF){
         //System.out.println("------------");
         for(Facet f:oldF) {
             //System.out.println("Supprimé "+f +"Point opposé " +f.getInsidePoint());
@@ -65,7 +121,7 @@ public class FullDimensionPolytope extends LatticePolytope {
                 }
 
             }
-            if(!facets.remove(f)) {
+            if(!remove(f)) {
                 StringBuilder sb=new StringBuilder();
                 for(Facet f2:oldF) {
                     sb.append(f2);
@@ -80,22 +136,32 @@ public class FullDimensionPolytope extends LatticePolytope {
             }
         }
         for(Facet f:newF)
-            facets.add(f);
+            add(f);
+        if(hint!=null && oldF.contains(hint))
+            hint=null;
 
         //facets.addAll(newF);
     }
 
     /**
-     * Computes the intersection between two facets and connects them if the intersection
-     * Time Complexity: O(|this.points|*|f.points|), Amortized Worst Space Complexity: O(1)
-     * contains (dimension-1) affinely independant points.
+     * Computes the intersection between two facets and connects them if the intersection spans a (d-2)-flat, i.e.
+     * contains (dimension-1) affinely independant points. From dimension 4, a ridge may contain more than d-1 vertices.
+     * If the facets are already connected, their ridge gets the vertices added to both facets since then.
+     * Time Complexity: O(|f1.points|+|f2.points|), plus O(|intersection|*d^3+|f1.ridges|) if the intersection contains
+     * at least d-1 vertices. Amortized Worst Space Complexity: O(|intersection|)
      * @param f1 a facet
      * @param f2 a facet
      */
     private void intersectAndAdd(Facet f1,Facet f2){
-        Ridge r=f1.intersection(f2);
-        if(r.getPoints().size() == (dimension -1)) {
-            if(GaussianEliminationLite.getRank(r.points)==(dimension-1)){
+        int [] ids=Face.intersection(f1.getVertices(),f2.getVertices());
+        if(ids.length >= (dimension -1)) {
+            if(GaussianEliminationLite.getRank(vertices.getCoordinates(),dimension,ids,ids.length)==(dimension-1)){
+                Ridge r=getRidge(f1,f2);
+                if(r!=null) {
+                    r.reset(ids, r.getFirst(), r.getSecond());
+                    return;
+                }
+                r=newRidge(ids,f1,f2);
                 f1.addNeighbor(r);
                 f2.addNeighbor(r);
                 //System.out.println("Ajout des voisins "+f1 +" et "+f2+"par le ridge "+r);
@@ -105,25 +171,82 @@ public class FullDimensionPolytope extends LatticePolytope {
 
     /**
      * Takes every facet created or modified by the QuickHull algorithm and connects the adjacent ones.
+     * The ridges of a simplicial facet are its d subsets of d-1 vertices, which are affinely independant: they are hashed
+     * and two simplicial facets sharing one are connected without any rank computation. A facet containing more than d
+     * vertices is ambiguous, since its subsets of d-1 vertices are not all ridges, so it is intersected with every other one.
+     * Expected Time Complexity: O(s*d^2+c*(s+c)*(k+d^3)), where s is the number of simplicial facets, c the number of
+     * other facets and k their maximal number of vertices.
      * @param newF list of facets created by the Quickhull algorithm
      * @param modified list of facets modified by the Quickhull algorithm
      */
     public void addNeighbors(List<Facet> newF,List<Facet> modified){
-        Facet f1;
-        for(int i=0;i<newF.size();i++){
-            f1=newF.get(i);
-            for(int j=i+1;j<newF.size();j++)
-                intersectAndAdd(f1,newF.get(j));
-            if(modified!=null)
-               for(Facet f:modified)
-                    intersectAndAdd(f1,f);
-        }
-        if(modified!=null) {
-            for (int i = 0; i < modified.size(); i++) {
-                f1 = modified.get(i);
-                for (int j = i + 1; j < modified.size(); j++)
-                    intersectAndAdd(f1, modified.get(j));
+        HashMap<RidgeKey,ArrayList<Facet>> buckets=new HashMap<>();
+        ArrayList<Facet> simplicial=new ArrayList<>();
+        ArrayList<Facet> coplanar=new ArrayList<>();
+        for(Facet f:newF)
+            hashRidges(f,buckets,simplicial,coplanar);
+        if(modified!=null)
+            for(Facet f:modified)
+                hashRidges(f,buckets,simplicial,coplanar);
+        for(int i=0;i<coplanar.size();i++){
+            Facet f1=coplanar.get(i);
+            for(Facet f:simplicial)
+                intersectAndAdd(f1,f);
+            for(int j=i+1;j<coplanar.size();j++)
+                intersectAndAdd(f1,coplanar.get(j));
+        }
+    }
+
+    /**
+     * If f is simplicial, connects it to the simplicial facets already hashed with one of its d ridges, then hashes it.
+     * Otherwise f is added to the list of the facets that have to be intersected with every other one.
+     * @param f a facet
+     * @param buckets the simplicial facets already hashed, by ridge
+     * @param simplicial the simplicial facets already hashed
+     * @param coplanar the facets containing more than d vertices
+     */
+    private void hashRidges(Facet f,HashMap<RidgeKey,ArrayList<Facet>> buckets,List<Facet> simplicial,List<Facet> coplanar){
+        int [] ids=f.getVertices();
+        if(ids.length!=dimension){
+            coplanar.add(f);
+            return;
+        }
+        for(int i=0;i<ids.length;i++){
+            int [] key=new int[dimension-1];
+            for(int j=0,k=0;j<ids.length;j++)
+                if(j!=i)
+                    key[k++]=ids[j];
+            ArrayList<Facet> bucket=buckets.computeIfAbsent(new RidgeKey(key),r->new ArrayList<>(2));
+            for(Facet g:bucket){
+                Ridge r=newRidge(key,g,f);
+                g.addNeighbor(r);
+                f.addNeighbor(r);
             }
+            bucket.add(f);
+        }
+        simplicial.add(f);
+    }
+
+    /**
+     * A sorted tabular of d-1 vertex ids, used to hash the ridges.
+     */
+    private static final class RidgeKey {
+        private final int [] ids;
+        private final int hash;
+
+        RidgeKey(int [] pIds){
+            ids=pIds;
+            hash=Arrays.hashCode(pIds);
+        }
+
+        @Override
+        public boolean equals(Object o){
+            return (o instanceof RidgeKey) && Arrays.equals(ids,((RidgeKey)o).ids);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
         }
     }
 
@@ -132,16 +255,27 @@ public class FullDimensionPolytope extends LatticePolytope {
      * @param pPoints a list of d+1 d-dimensional points
      * @return true if pPoints contains (d+1) affinely independant points, false otherwise.
      */
+    @Override
     public boolean createSimplex(List<Point> pPoints){
         if(!isSimplex(pPoints))
             return false;
-        points=new ArrayList<>(pPoints);
-        for(int i=0;i<pPoints.size();i++){
-            Point p=points.remove(0);
-            Facet f=new Facet((ArrayList<Point>) points.clone(),p);
-            facets.add(f);
-            points.add(p);
-
+        vertices=new VertexTable(dimension);
+        incidence.clear();
+        int [] ids=new int[pPoints.size()];
+        for(int i=0;i<ids.length;i++)
+            ids[i]=vertices.insert(pPoints.get(i));
+        basis=ids.clone();
+        basisPoints=pPoints.toArray(new Point[0]);
+        center=null;
+        hint=null;
+        volumeComputed=false;
+        for(int i=0;i<ids.length;i++){
+            int [] facetIds=new int[ids.length-1];
+            for(int j=0,k=0;j<ids.length;j++)
+                if(j!=i)
+                    facetIds[k++]=ids[j];
+            Arrays.sort(facetIds);
+            add(newFacet(facetIds,pPoints.get(i)));
         }
         addNeighbors(facets,null);
         return true;
@@ -159,23 +293,613 @@ public class FullDimensionPolytope extends LatticePolytope {
 
     /**
      * Checks if a polytope would this have d+1 affinely independent points if we where to remove the point p.
+     * The polytope keeps an affine basis, made of d+1 affinely independent vertices. If p is not in the basis, the answer
+     * is immediate. Otherwise, we look for a vertex outside the hyperplane spanned by the d other points of the basis,
+     * and this vertex replaces p in the basis.
+     * Time Complexity: O(d) if p is not in the basis, O(|vertices|*d+d^3) otherwise. Space Complexity: O(d)
      * @param p a d-dimensional point
      * @return true if a polytope still have d+1 affinely independent points after we remove p.
      */
     public boolean staysFullDimensionAfterDeletion(Point p){
-        points.remove(p);
-        boolean res=GaussianEliminationLite.getRank(points)==dimension+1;
-        points.add(p);
+        if(!hasValidBasis() && !computeBasis())
+            return false;
+        int id=vertices.idOf(p);
+        int k=0;
+        while(k<basis.length && basis[k]!=id) k++;
+        if(k==basis.length)
+            return true;
+        int [] others=new int[dimension];
+        for(int i=0,j=0;i<basis.length;i++)
+            if(i!=k)
+                others[j++]=basis[i];
+        Hyperplane hyperplane=Hyperplane.through(vertices,others);
+        for(int i=0;i<vertices.size();i++){
+            int q=vertices.getId(i);
+            if(q!=id && hyperplane.side(vertices.getPoint(q))!=0){
+                basis[k]=q;
+                basisPoints[k]=vertices.getPoint(q);
+                center=null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the extremal point p from the polytope, if the polytope stays full-dimensional.
+     * Only the facets incident to p are deleted. The hole they leave is filled by the facets of the convex hull of the
+     * link of p (the other vertices of these facets) that are visible from p or whose hyperplane contains p. Since the
+     * extremal points of the polytope are in convex position, no other point becomes extremal.
+     * Time Complexity: O(|facets|*d) plus the cost of the convex hull of the link.
+     * @param p an extremal point of the polytope.
+     * @return true if p has been removed, false if the polytope would not be full-dimensional anymore.
+     */
+    @Override
+    public boolean removeExtremalPoint(Point p){
+        if(!staysFullDimensionAfterDeletion(p))
+            return false;
+        int id=vertices.idOf(p);
+        HashSet<Facet> incident=new HashSet<>(getIncidentFacets(id));
+        boolean [] inLink=new boolean[vertices.getIdBound()];
+        int linkSize=0;
+        for(Facet f:incident) {
+            for (int v : f.getVertices()) {
+                if (v != id && !inLink[v]) {
+                    inLink[v] = true;
+                    linkSize++;
+                }
+            }
+        }
+        int [] link=new int[linkSize];
+        for(int v=0,k=0;k<linkSize;v++)
+            if(inLink[v])
+                link[k++]=v;
+        //Disconnects the facets around the hole.
+        ArrayList<Facet> horizon=new ArrayList<>();
+        HashSet<Facet> seen=new HashSet<>();
+        for(Facet f:incident){
+            for(Ridge r:f.getRidges()){
+                Facet n=r.getNeighbor(f);
+                if(!incident.contains(n)){
+                    n.removeNeighbor(r);
+                    if(seen.add(n))
+                        horizon.add(n);
+                }
+            }
+        }
+        for(Facet f:incident)
+            remove(f);
+        if(hint!=null && incident.contains(hint))
+            hint=null;
+        vertices.remove(p);
+        //Fills the hole.
+        List<Facet> cap=fillHole(p,link);
+        if(volumeComputed)
+            for(Facet f:cap)
+                if(f.getHyperplane().side(p)!=0) //The new facets containing p don't bound any volume.
+                    addCone(f,p,true);
+        for(int i=0;i<cap.size();i++){
+            for(int j=i+1;j<cap.size();j++)
+                intersectAndAdd(cap.get(i),cap.get(j));
+            for(Facet f:horizon)
+                intersectAndAdd(cap.get(i),f);
+        }
+        for(Facet f:cap)
+            add(f);
+        replaceInsidePoint(p);
+        recycle(incident);
+        return true;
+    }
+
+    /**
+     * Removes a vertex that an insertion has put inside the polytope. The facets containing it also contain the
+     * inserted point: their hyperplanes don't change, and they only lose the vertex. A ridge between two of them loses
+     * it too, and is removed if it doesn't span a (d-2)-flat anymore.
+     * Time Complexity: O(sum over the facets f containing the vertex of |f.ridges|*(|f.points|+d^3)) plus O(|facets|)
+     * @param id the id of a vertex of the polytope, which is not an extremal point of the polytope anymore.
+     */
+    void absorbVertex(int id){
+        ArrayList<Facet> incident=new ArrayList<>(getIncidentFacets(id));
+        ArrayList<Ridge> dropped=new ArrayList<>();
+        for(Facet f:incident){
+            for(Ridge r:f.getRidges()){
+                if(r.getFirst()==f && r.containsVertex(id)){
+                    r.removeVertex(id);
+                    int [] ids=r.getVertices();
+                    if(GaussianEliminationLite.getRank(vertices.getCoordinates(),dimension,ids,ids.length)<dimension-1)
+                        dropped.add(r);
+                }
+            }
+        }
+        for(Ridge r:dropped){
+            r.getFirst().removeNeighbor(r);
+            r.getSecond().removeNeighbor(r);
+            freeRidges.add(r);
+        }
+        for(Facet f:incident)
+            f.removeVertex(id);
+        if(id<incidence.size())
+            incidence.get(id).clear();
+        Point p=vertices.getPoint(id);
+        vertices.removeId(id);
+        if(!hasValidBasis() && !computeBasis())
+            throw new RuntimeException("The polytope isn't full-dimensional anymore");
+        replaceInsidePoint(p);
+    }
+
+    /**
+     * Gives a new interior point to the facets whose interior point has been removed from the polytope, since it can't
+     * be used anymore to orient facets.
+     * Time Complexity: O(|facets|), Space Complexity: O(1)
+     * @param p a point removed from the polytope.
+     */
+    private void replaceInsidePoint(Point p){
+        for(Facet f:facets)
+            if(f.getInsidePoint().equals(p))
+                f.setInsidePoint(pointBelow(f.getHyperplane()));
+    }
+
+    /**
+     * Computes the facets that fill the hole left by the removal of p: the facets of the convex hull of the link that
+     * are visible from p or whose hyperplane contains p. If the link is contained in a hyperplane, the hole is a single facet.
+     * The new facets keep the hyperplanes of the facets of the hull of the link: from dimension 4, the d first vertices of
+     * a facet containing more than d vertices may be affinely dependent.
+     * @param p the removed point.
+     * @param link the sorted ids of the vertices of the facets incident to p, except p.
+     * @return the new facets, created in the VertexTable of the polytope.
+     */
+    private List<Facet> fillHole(Point p,int [] link){
+        ArrayList<Facet> res=new ArrayList<>();
+        if(GaussianEliminationLite.getRank(vertices.getCoordinates(),dimension,link,link.length)<dimension+1) {
+            Hyperplane h=Facet.hyperplaneThrough(vertices,link);
+            res.add(newFacet(link, pointBelow(h), h));
+            return res;
+        }
+        ArrayList<Point> linkPoints=new ArrayList<>();
+        for(int v:link)
+            linkPoints.add(vertices.getPoint(v));
+        FullDimensionPolytope hull=getBuilder().build(linkPoints,dimension);
+        for(Facet hf:hull.getFacets()){
+            if(hf.getHyperplane().side(p)>=0){
+                int [] hv=hf.getVertices();
+                int [] ids=new int[hv.length];
+                for(int k=0;k<ids.length;k++)
+                    ids[k]=vertices.idOf(hull.getPoints().getPoint(hv[k]));
+                Arrays.sort(ids);
+                res.add(newFacet(ids,hf.getInsidePoint(),hf.getHyperplane()));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns d! times the volume of the polytope. It is computed the first time, as the sum of the cones from a vertex
+     * over the facets that don't contain it, and then it is updated by every insertion and deletion.
+     * Time Complexity: O(1) once computed.
+     * @return d! times the volume of the polytope.
+     */
+    @Override
+    public BigInteger getNormalizedVolume(){
+        if(!volumeComputed && !facets.isEmpty()){
+            setNormalizedVolume(0);
+            Point apex=vertices.get(0);
+            for(Facet f:facets)
+                if(!f.containsExtremalPoint(apex))
+                    addCone(f,apex,false);
+            volumeComputed=true;
+        }
+        return super.getNormalizedVolume();
+    }
+
+    /**
+     * Adds to the volume the cones from p over facets visible from p, if the volume has been computed.
+     * @param visible facets of the polytope visible from p.
+     * @param p a point outside the polytope, which is being inserted.
+     */
+    void addCones(Collection<Facet> visible,Point p){
+        if(volumeComputed)
+            for(Facet f:visible)
+                addCone(f,p,false);
+    }
+
+    /**
+     * Adds to the volume, or subtracts from it, d! times the volume of the cone whose apex is p and whose base is the
+     * facet f. A facet with more than d vertices is split into simplices by triangulate, with the auxiliary builder of
+     * the polytope, since the builder itself is inserting a point when the cones of the visible facets are added.
+     * Time Complexity: O(d^3) if f is a simplex.
+     * @param f a facet, whose vertices are in the table of the polytope.
+     * @param apex a point which is not on the hyperplane of f.
+     * @param subtract true if the cone is removed from the polytope.
+     */
+    private void addCone(Facet f,Point apex,boolean subtract){
+        int [] ids=f.getVertices();
+        BigInteger volume;
+        if(ids.length==dimension)
+            volume=GaussianEliminationLite.simplexVolume(vertices.getCoordinates(),dimension,ids,apex);
+        else {
+            volume=BigInteger.ZERO;
+            int dropped=droppedCoordinate(f.getHyperplane());
+            ArrayList<Point> points=new ArrayList<>(ids.length);
+            for(int id:ids)
+                points.add(project(vertices.getPoint(id),dropped));
+            for(int [] simplex:triangulate(points,dimension-1,getBuilder().getAuxiliary())) {
+                for (int k = 0; k < simplex.length; k++)
+                    simplex[k] = ids[simplex[k]];
+                volume = volume.add(GaussianEliminationLite.simplexVolume(vertices.getCoordinates(), dimension, simplex, apex));
+            }
+        }
+        addNormalizedVolume(subtract?volume.negate():volume);
+    }
+
+    /**
+     * Triangulates the convex hull of points in convex position, spanning a space of dimension k: the hull is split
+     * into the cones from its first point over its facets that don't contain it, and each facet is triangulated
+     * recursively in dimension k-1.
+     * @param points k-dimensional points in strictly convex position, spanning the whole space.
+     * @param k the dimension of the points.
+     * @param hullBuilder the builder computing the convex hulls, which must not be updating a polytope.
+     * @return the simplices of the triangulation, as tabulars of k+1 positions in the list of points.
+     */
+    private static List<int []> triangulate(List<Point> points,int k,Quickhull hullBuilder){
+        ArrayList<int []> res=new ArrayList<>();
+        if(points.size()==k+1){
+            int [] simplex=new int[k+1];
+            for(int i=0;i<simplex.length;i++)
+                simplex[i]=i;
+            res.add(simplex);
+            return res;
+        }
+        HashMap<Point,Integer> positions=new HashMap<>();
+        for(int i=0;i<points.size();i++)
+            positions.put(points.get(i),i);
+        Point apex=points.get(0);
+        FullDimensionPolytope hull=hullBuilder.build(new ArrayList<>(points),k);
+        for(Facet g:hull.getFacets()){
+            if(g.containsExtremalPoint(apex))
+                continue;
+            List<Point> base=g.getPoints();
+            int dropped=droppedCoordinate(g.getHyperplane());
+            ArrayList<Point> projected=new ArrayList<>(base.size());
+            for(Point q:base)
+                projected.add(project(q,dropped));
+            for(int [] s:triangulate(projected,k-1,hullBuilder)){
+                int [] simplex=new int[k+1];
+                simplex[0]=0;
+                for(int i=0;i<s.length;i++)
+                    simplex[i+1]=positions.get(base.get(s[i]));
+                res.add(simplex);
+            }
+        }
         return res;
     }
 
+    /**
+     * Returns a coordinate whose coefficient in a hyperplane isn't zero. Dropping this coordinate is an affine bijection
+     * from the hyperplane to the space of dimension d-1, so it preserves triangulations.
+     * Time and Space Complexity: O(d)
+     * @param h a hyperplane.
+     * @return the index of a coordinate whose coefficient in h isn't zero.
+     */
+    private static int droppedCoordinate(Hyperplane h){
+        BigInteger [] c=h.getCoefficients();
+        int dropped=0;
+        while(c[dropped].signum()==0) dropped++;
+        return dropped;
+    }
+
+    /**
+     * Projects a point by dropping one of its coordinates.
+     * Time and Space Complexity: O(d)
+     * @param p a point.
+     * @param dropped the index of the dropped coordinate.
+     * @return the (d-1)-dimensional projection of p.
+     */
+    private static Point project(Point p,int dropped){
+        int [] coordinates=new int[p.getDimension()-1];
+        for(int i=0,j=0;i<p.getDimension();i++)
+            if(i!=dropped)
+                coordinates[j++]=p.getCoordinate(i);
+        return new Point(coordinates);
+    }
+
+    /**
+     * Returns a vertex of the affine basis which is not on a hyperplane. Such a vertex exists since the basis contains d+1
+     * affinely independent points.
+     * Time Complexity: O(d^2), Space Complexity: O(1)
+     * @param h a hyperplane.
+     * @return a vertex of the affine basis which is not on h.
+     */
+    private Point pointBelow(Hyperplane h){
+        for(int b:basis){
+            Point v=vertices.getPoint(b);
+            if(h.side(v)!=0)
+                return v;
+        }
+        throw new RuntimeException("The affine basis is contained in the hyperplane "+h);
+    }
+
+    /**
+     * Returns the ridge connecting two facets.
+     * Time Complexity: O(|f1.ridges|), Space Complexity: O(1)
+     * @param f1 a facet.
+     * @param f2 a facet.
+     * @return the ridge connecting f1 and f2, or null if they aren't neighbors.
+     */
+    private static Ridge getRidge(Facet f1,Facet f2){
+        for(Ridge r:f1.getRidges())
+            if(r.getNeighbor(f1)==f2)
+                return r;
+        return null;
+    }
+
+    /**
+     * Returns the sum of the d+1 points of the affine basis, which is d+1 times a point in the interior of the polytope.
+     * A new tabular is returned each time the basis changes.
+     * Time and Space Complexity: O(d) if the basis is valid.
+     * @return the sum of the points of the basis, or null if a coordinate doesn't fit in an int.
+     */
+    int [] getCenter(){
+        if(!hasValidBasis()) {
+            if (!computeBasis())
+                return null;
+        }
+        else if(center!=null)
+            return center;
+        long [] sum=new long[dimension];
+        for(int id:basis)
+            for(int i=0;i<dimension;i++)
+                sum[i]+=vertices.getCoordinate(id,i);
+        center=new int[dimension];
+        for(int i=0;i<dimension;i++) {
+            if (sum[i] != (int) sum[i]) {
+                center = null;
+                return null;
+            }
+            center[i] = (int) sum[i];
+        }
+        return center;
+    }
+
+    /**
+     * Returns the facet from which point location starts: the last facet reached by a point location, if it still
+     * exists, or any facet otherwise.
+     * @return a facet of the polytope.
+     */
+    Facet getHint(){
+        if(hint==null)
+            hint=facets.get(0);
+        return hint;
+    }
+
+    void setHint(Facet f){
+        hint=f;
+    }
 
     /**
-     * Returns the polytopes list of facets.
+     * Checks that every point of the affine basis is still a vertex of the polytope.
+     * Time and Space Complexity: O(d)
+     * @return true if the basis can be used.
+     */
+    private boolean hasValidBasis(){
+        if(basis==null)
+            return false;
+        for(int k=0;k<basis.length;k++)
+            if(vertices.getPoint(basis[k])!=basisPoints[k])
+                return false;
+        return true;
+    }
+
+    /**
+     * Greedily extracts an affine basis from the vertices of the polytope.
+     * Time Complexity: O(|vertices|*d^3), Space Complexity: O(d)
+     * @return true if the vertices contain d+1 affinely independent points.
+     */
+    private boolean computeBasis(){
+        int [] candidate=new int[dimension+1];
+        int count=0;
+        for(int i=0;i<vertices.size() && count<candidate.length;i++){
+            candidate[count]=vertices.getId(i);
+            if(GaussianEliminationLite.getRank(vertices.getCoordinates(),dimension,candidate,count+1)==count+1)
+                count++;
+        }
+        if(count<candidate.length) {
+            basis = null;
+            return false;
+        }
+        basis=candidate;
+        center=null;
+        basisPoints=new Point[candidate.length];
+        for(int k=0;k<candidate.length;k++)
+            basisPoints[k]=vertices.getPoint(candidate[k]);
+        return true;
+    }
+
+    /**
+     * Returns the facets of the polytope containing a vertex.
+     * Time and Space Complexity: O(1)
+     * @param id the id of a vertex of the polytope.
+     * @return the facets containing the vertex, which must not be modified.
+     */
+    List<Facet> getIncidentFacets(int id){
+        if(id>=incidence.size())
+            return Collections.emptyList();
+        return incidence.get(id);
+    }
+
+    /**
+     * Adds a vertex to a facet of the polytope, and the facet to the incident facets of the vertex, unless the vertex
+     * already belongs to the facet.
+     * Time Complexity: O(|f.points|), Space Complexity: O(|f.points|)
+     * @param f a facet of the polytope.
+     * @param id the id of a vertex of the polytope.
+     * @return true if the vertex has been added, false if it already belonged to f.
+     */
+    boolean addVertex(Facet f,int id){
+        if(!f.addVertex(id))
+            return false;
+        link(f,id);
+        return true;
+    }
+
+    /**
+     * Adds a facet to the polytope, and to the incident facets of its vertices. The facet keeps its index in the list of
+     * facets as its slot.
+     * Amortized Time Complexity: O(|f.points|)
+     * @param f a facet which is not in the polytope.
+     */
+    private void add(Facet f){
+        f.setSlot(facets.size());
+        facets.add(f);
+        for(int v:f.getVertices())
+            link(f,v);
+    }
+
+    /**
+     * Removes a facet from the polytope: the last facet of the list takes its slot.
+     * Time Complexity: O(sum over the vertices v of f of |incident facets of v|), Space Complexity: O(1)
+     * @param f a facet.
+     * @return true if f was a facet of the polytope, false otherwise.
+     */
+    private boolean remove(Facet f){
+        if(!containsFacet(f))
+            return false;
+        Facet last=facets.remove(facets.size()-1);
+        if(last!=f) {
+            facets.set(f.getSlot(), last);
+            last.setSlot(f.getSlot());
+        }
+        f.setSlot(-1);
+        unlink(f);
+        return true;
+    }
+
+    /**
+     * Creates a facet of the polytope, reusing a removed facet if there is one. The facet is not added to the polytope.
+     * Time Complexity: O(d) in dimensions 2 and 3, O(d^3) otherwise.
+     * @param ids sorted ids of the vertices of the facet.
+     * @param inside an extremal point of the polytope that doesn't belong to the facet.
+     * @return a facet whose hyperplane is oriented so that inside is below it.
+     */
+    Facet newFacet(int [] ids,Point inside){
+        return newFacet(ids,inside,null);
+    }
+
+    /**
+     * Same as newFacet, for a facet whose hyperplane is already known.
+     * Time Complexity: O(d)
+     * @param ids sorted ids of the vertices of the facet.
+     * @param inside an extremal point of the polytope that doesn't belong to the facet.
+     * @param hyperplane the hyperplane containing the vertices, or null if it has to be computed.
+     * @return a facet whose hyperplane is oriented so that inside is below it.
+     */
+    private Facet newFacet(int [] ids,Point inside,Hyperplane hyperplane){
+        if(freeFacets.isEmpty())
+            return new Facet(vertices,ids,inside,hyperplane);
+        Facet f=freeFacets.remove(freeFacets.size()-1);
+        f.reset(vertices,ids,inside,hyperplane);
+        return f;
+    }
+
+    /**
+     * Creates a ridge connecting two facets, reusing a ridge of a removed facet if there is one.
+     * Time and Space Complexity: O(1)
+     * @param ids the sorted intersection of the vertices of f1 and f2.
+     * @param f1 a facet of the polytope.
+     * @param f2 a facet of the polytope.
+     * @return a ridge connecting f1 and f2, which is not added to their neighbors.
+     */
+    private Ridge newRidge(int [] ids,Facet f1,Facet f2){
+        if(freeRidges.isEmpty())
+            return new Ridge(ids,f1,f2);
+        Ridge r=freeRidges.remove(freeRidges.size()-1);
+        r.reset(ids,f1,f2);
+        return r;
+    }
+
+    /**
+     * Keeps facets removed from the polytope, and their ridges, to be reused by newFacet and newRidge.
+     * The facets must not be referenced anymore, and their ridges must only connect them or be detached from the
+     * facets that are still in the polytope.
+     * Time Complexity: O(sum of |f.ridges|)
+     * @param removed facets removed from the polytope.
+     */
+    void recycle(Collection<Facet> removed){
+        for(Facet f:removed){
+            for(Ridge r:f.getRidges())
+                if(r.getFirst()==f || !removed.contains(r.getNeighbor(f)))
+                    freeRidges.add(r);
+            freeFacets.add(f);
+        }
+    }
+
+    /**
+     * Checks whether a facet belongs to the polytope, by identity.
+     * Time and Space Complexity: O(1)
+     * @param f a facet.
+     * @return true if f is a facet of the polytope, false otherwise.
+     */
+    boolean containsFacet(Facet f){
+        int s=f.getSlot();
+        return s>=0 && s<facets.size() && facets.get(s)==f;
+    }
+
+    private void link(Facet f,int id){
+        while(incidence.size()<=id)
+            incidence.add(new ArrayList<>());
+        incidence.get(id).add(f);
+    }
+
+    /**
+     * Removes a facet from the incident facets of its vertices.
+     * Time Complexity: O(sum over the vertices v of f of |incident facets of v|), Space Complexity: O(1)
+     * @param f a facet removed from the polytope.
+     */
+    private void unlink(Facet f){
+        for(int v:f.getVertices()){
+            ArrayList<Facet> l=incidence.get(v);
+            for(int k=0;k<l.size();k++) {
+                if (l.get(k) == f) {
+                    l.set(k, l.get(l.size() - 1));
+                    l.remove(l.size() - 1);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that no point of a collection is above a facet of the polytope, i.e. that the polytope contains them all.
+     * Time Complexity: O(|facets|*|points|*d), Space Complexity: O(1)
+     * @param points d-dimensional points.
+     * @return true if every point is below or on the hyperplane of every facet, false otherwise.
+     */
+    public boolean encloses(Collection<Point> points){
+        for(Facet f:facets)
+            for(Point p:points)
+                if(f.getHyperplane().side(p)>0)
+                    return false;
+        return true;
+    }
+
+    /**
+     * Returns the polytopes list of facets, which must only be modified through the polytope.
      * @return the polytopes list of facets.
      */
     public List<Facet> getFacets() {
         return facets;
     }
 
+    /**
+     * Returns the facets of the polytope, each one given by its vertices in increasing order of their ids.
+     * Time and Space Complexity: O(sum over the facets f of |f.points|)
+     * @return the list of facets of the polytope.
+     */
+    @Override
+    public List<List<Point>> getFaces() {
+        List<List<Point>> res=new ArrayList<>(facets.size());
+        for(Facet f:facets)
+            res.add(new ArrayList<>(f.getPoints()));
+        return res;
+    }
+
 }
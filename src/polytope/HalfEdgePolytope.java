@@ -0,0 +1,800 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package polytope;
+
+import toolkit.GaussianEliminationLite;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A three-dimensional lattice polytope stored as a half-edge structure in primitive arrays. Each half-edge e has an
+ * origin vertex, a twin (the same edge in the other direction, in the neighboring face), the next and previous
+ * half-edges of its face, and the face it bounds. The half-edges of a face turn counterclockwise when the face is seen
+ * from outside. Faces are convex polygons: coplanar lattice points are kept in the same face, and each face stores
+ * its supporting Hyperplane, oriented so that the interior of the polytope is below it.
+ * Ids of removed half-edges and faces are reused by the next insertions.
+ * Six times the volume is updated by adding the pyramids from p over the visible faces when p is inserted, and by
+ * subtracting the pyramids from p over the faces filling the hole when p is removed.
+ */
+public class HalfEdgePolytope extends DynamicPolytope {
+    private static final int INITIAL_CAPACITY=16;
+
+    private VertexTable vertices=new VertexTable(3);
+    private int [] outgoing=new int[INITIAL_CAPACITY]; //a half-edge leaving each vertex.
+    private int [] vertexMark=new int[INITIAL_CAPACITY];
+
+    private int [] origin=new int[4*INITIAL_CAPACITY];
+    private int [] twin=new int[4*INITIAL_CAPACITY];
+    private int [] next=new int[4*INITIAL_CAPACITY];
+    private int [] prev=new int[4*INITIAL_CAPACITY];
+    private int [] face=new int[4*INITIAL_CAPACITY];
+    private int [] edgeMark=new int[4*INITIAL_CAPACITY];
+    private int edgeBound=0;
+    private int [] freeEdges=new int[4*INITIAL_CAPACITY];
+    private int numberOfFreeEdges=0;
+
+    private int [] faceEdge=new int[2*INITIAL_CAPACITY]; //a half-edge of each face, -1 if the face id is free.
+    private Hyperplane [] planes=new Hyperplane[2*INITIAL_CAPACITY];
+    private int [] faceMark=new int[2*INITIAL_CAPACITY];
+    private int [] faceSide=new int[2*INITIAL_CAPACITY]; //side of the last point, valid if faceMark is the stamp.
+    private int faceBound=0;
+    private int [] freeFaces=new int[2*INITIAL_CAPACITY];
+    private int numberOfFreeFaces=0;
+    private int numberOfFaces=0;
+
+    private int [] basis=new int[4]; //ids of 4 affinely independent vertices.
+    private int hint=-1; //face from which point location starts.
+    private int stamp=0;
+    private int [] buffer=new int[4*INITIAL_CAPACITY];
+    private int [] horizon=new int[INITIAL_CAPACITY];
+    private int [] visible=new int[INITIAL_CAPACITY];
+    private Hyperplane [] slotPlanes=new Hyperplane[INITIAL_CAPACITY];
+
+    /**
+     * Creates an empty three-dimensional polytope.
+     */
+    public HalfEdgePolytope() {
+        dimension=3;
+    }
+
+    /**
+     * Returns the table containing the extremal points of the polytope.
+     * @return the table containing the extremal points of the polytope.
+     */
+    @Override
+    public VertexTable getPoints() {
+        return vertices;
+    }
+
+    /**
+     * The faces of the polytope must be updated with each vertex, so a point can't be added without locating it.
+     * @param p a three-dimensional point.
+     * @throws RuntimeException always, use addExtremalPoint instead.
+     */
+    @Override
+    public void addPoint(Point p) throws RuntimeException {
+        throw new RuntimeException("The vertices of a half-edge polytope must be added with addExtremalPoint");
+    }
+
+    /**
+     * Time Complexity: O(1)
+     * @param p is a d-dimensional point.
+     * @return true if p is an extremal point of the polytope.
+     */
+    @Override
+    public boolean containsExtremalPoint(Point p) {
+        return vertices.contains(p);
+    }
+
+    /**
+     * Returns the number of faces of the polytope.
+     * @return the number of faces of the polytope.
+     */
+    public int getNumberOfFaces() {
+        return numberOfFaces;
+    }
+
+    /**
+     * Returns the faces of the polytope, each one given by its vertices in counterclockwise order seen from outside.
+     * Time and Space Complexity: O(number of half-edges)
+     * @return the list of faces of the polytope.
+     */
+    @Override
+    public List<List<Point>> getFaces() {
+        List<List<Point>> res=new ArrayList<>(numberOfFaces);
+        for(int f=0;f<faceBound;f++){
+            if(faceEdge[f]<0)
+                continue;
+            List<Point> points=new ArrayList<>();
+            int e=faceEdge[f];
+            do{
+                points.add(vertices.getPoint(origin[e]));
+                e=next[e];
+            }while(e!=faceEdge[f]);
+            res.add(points);
+        }
+        return res;
+    }
+
+    /**
+     * Replaces the polytope by a tetrahedron.
+     * Time and Space Complexity: O(1)
+     * @param pPoints a list of 4 three-dimensional points
+     * @return true if the points are affinely independent, false otherwise.
+     */
+    @Override
+    public boolean createSimplex(List<Point> pPoints) {
+        if(pPoints.size()!=4)
+            throw new RuntimeException("A tetrahedron has 4 vertices but "+pPoints.size()+" points were given");
+        VertexTable table=new VertexTable(3);
+        int a=table.insert(pPoints.get(0)),b=table.insert(pPoints.get(1));
+        int c=table.insert(pPoints.get(2)),d=table.insert(pPoints.get(3));
+        int orientation=orientation(table.getCoordinates(),a,b,c,d);
+        if(orientation==0)
+            return false;
+        if(orientation>0){ //d must be below the face (a,b,c).
+            int tmp=b;
+            b=c;
+            c=tmp;
+        }
+        vertices=table;
+        ensureVertexCapacity();
+        edgeBound=0;
+        numberOfFreeEdges=0;
+        faceBound=0;
+        numberOfFreeFaces=0;
+        numberOfFaces=0;
+        int [][] cycles={{a,b,c},{b,a,d},{c,b,d},{a,c,d}};
+        int [] below={d,c,a,b};
+        HashMap<Long,Integer> open=new HashMap<>();
+        for(int i=0;i<cycles.length;i++){
+            int f=newFace(orientedPlane(cycles[i],below[i]));
+            int first=-1,last=-1;
+            for(int v:cycles[i]){
+                int e=newEdge(v,f);
+                if(first<0)
+                    first=e;
+                else
+                    link(last,e);
+                last=e;
+                outgoing[v]=e;
+            }
+            link(last,first);
+            faceEdge[f]=first;
+            for(int j=0;j<3;j++)
+                pair(open,cycles[i][j],cycles[i][(j+1)%3],first+j);
+        }
+        basis[0]=a;
+        basis[1]=b;
+        basis[2]=c;
+        basis[3]=d;
+        hint=0;
+        setNormalizedVolume(0);
+        addPyramid(0,table.getCoordinates(),3*d,false);
+        return true;
+    }
+
+    /**
+     * Adds p to the polytope, unless p is not outside the polytope or a vertex would not be extremal anymore, which
+     * happens when every face around the vertex is visible from p or contains p. Since the visible faces have no
+     * vertex inside their union, the border of their union is a cycle of edges, the horizon, which is found by walking
+     * from edge to edge around its vertices. Each horizon edge either extends the face behind it, if p is on its plane,
+     * or creates a new face with p, and consecutive new faces lying on the same plane form a single polygon.
+     * Time Complexity: O(number of visible faces+number of edges around their vertices) once p is located.
+     * @param p a three-dimensional point.
+     * @return true if p has been added, false otherwise.
+     */
+    @Override
+    public boolean addExtremalPoint(Point p) {
+        int f=locate(p);
+        if(f<0)
+            return false;
+        stamp++;
+        //Computes the visible faces with a depth-first search, and stores the half-edges that bound them.
+        int visibleEdges=0,visibleFaces=0;
+        int top=0;
+        int [] stack=horizon;
+        stack[top++]=f;
+        faceMark[f]=stamp;
+        faceSide[f]=1;
+        int start=-1;
+        while(top>0){
+            int g=stack[--top];
+            if(visibleFaces==visible.length)
+                visible=Arrays.copyOf(visible,2*visible.length);
+            visible[visibleFaces++]=g;
+            int e=faceEdge[g];
+            do{
+                if(visibleEdges==buffer.length)
+                    buffer=Arrays.copyOf(buffer,2*buffer.length);
+                buffer[visibleEdges++]=e;
+                int h=face[twin[e]];
+                if(faceMark[h]!=stamp && sideOf(h,p)>0){
+                    if(top==stack.length)
+                        stack=horizon=Arrays.copyOf(stack,2*stack.length);
+                    stack[top++]=h;
+                }
+                if(faceSide[h]<=0)
+                    start=e;
+                e=next[e];
+            }while(e!=faceEdge[g]);
+        }
+        //Rejects p if it absorbs a vertex.
+        for(int k=0;k<visibleEdges;k++){
+            int v=origin[buffer[k]];
+            if(vertexMark[v]==stamp)
+                continue;
+            vertexMark[v]=stamp;
+            if(isAbsorbed(v,p))
+                return false;
+        }
+        int [] apex={p.getCoordinate(0),p.getCoordinate(1),p.getCoordinate(2)};
+        for(int k=0;k<visibleFaces;k++)
+            addPyramid(visible[k],apex,0,false);
+        //Walks along the horizon.
+        int size=0;
+        int e=start;
+        do{
+            if(size==horizon.length)
+                horizon=Arrays.copyOf(horizon,2*horizon.length);
+            horizon[size++]=e;
+            int n=next[e];
+            while(faceSide[face[twin[n]]]>0)
+                n=next[twin[n]];
+            e=n;
+        }while(e!=start);
+        int pid=vertices.insert(p);
+        ensureVertexCapacity();
+        int [] coordinates=vertices.getCoordinates();
+        if(slotPlanes.length<size)
+            slotPlanes=new Hyperplane[horizon.length];
+        for(int i=0;i<size;i++){
+            int t=twin[horizon[i]];
+            if(faceSide[face[t]]==0)
+                slotPlanes[i]=null;
+            else {
+                Hyperplane h = Hyperplane.through(coordinates, 3, new int[]{origin[horizon[i]], origin[t], pid});
+                int x = origin[next[next[t]]];
+                slotPlanes[i] = (h.side(coordinates, 3 * x) > 0) ? h.opposite() : h;
+            }
+        }
+        int first=0;
+        while(first<size && !startsFace(first,size))
+            first++;
+        if(first==size)
+            throw new RuntimeException("The new point is inside the face it creates");
+        //Builds the new faces, run by run, and connects them around p.
+        int firstIn=-1,lastOut=-1;
+        for(int k=0;k<size;){
+            int i=(first+k)%size;
+            int in,out;
+            if(slotPlanes[i]==null){
+                int t=twin[horizon[i]];
+                int g=face[t];
+                int n=next[t];
+                in=newEdge(pid,g);
+                link(t,in);
+                link(in,n);
+                out=t;
+                faceEdge[g]=t;
+                outgoing[origin[n]]=n;
+                k++;
+            }
+            else{
+                int g=newFace(slotPlanes[i]);
+                int j=i;
+                faceEdge[g]=horizon[i];
+                face[horizon[i]]=g;
+                edgeMark[horizon[i]]=-stamp; //reused.
+                outgoing[origin[horizon[i]]]=horizon[i];
+                k++;
+                while(k<size && !startsFace((first+k)%size,size)){
+                    int m=(first+k)%size;
+                    link(horizon[j],horizon[m]);
+                    face[horizon[m]]=g;
+                    edgeMark[horizon[m]]=-stamp;
+                    outgoing[origin[horizon[m]]]=horizon[m];
+                    j=m;
+                    k++;
+                }
+                out=newEdge(origin[twin[horizon[j]]],g);
+                in=newEdge(pid,g);
+                link(horizon[j],out);
+                link(out,in);
+                link(in,horizon[i]);
+            }
+            if(firstIn<0)
+                firstIn=in;
+            else{
+                twin[lastOut]=in;
+                twin[in]=lastOut;
+            }
+            lastOut=out;
+        }
+        twin[lastOut]=firstIn;
+        twin[firstIn]=lastOut;
+        outgoing[pid]=firstIn;
+        //Frees the visible faces and their half-edges that were not reused.
+        for(int k=0;k<visibleFaces;k++)
+            freeFace(visible[k]);
+        for(int k=0;k<visibleEdges;k++)
+            if(edgeMark[buffer[k]]!=-stamp)
+                freeEdge(buffer[k]);
+        hint=face[firstIn];
+        return true;
+    }
+
+    /**
+     * Tests whether the slot i of the horizon starts a new face: a slot extending an existing face is alone in its
+     * face, and consecutive slots creating new faces are merged if they lie on the same plane.
+     */
+    private boolean startsFace(int i,int size){
+        int h=(i==0)?size-1:i-1;
+        return slotPlanes[i]==null || slotPlanes[h]==null || !slotPlanes[i].equals(slotPlanes[h]);
+    }
+
+    /**
+     * Tests whether every face around the vertex v is visible from p or contains p.
+     * Time Complexity: O(number of faces around v)
+     */
+    private boolean isAbsorbed(int v,Point p){
+        int e=outgoing[v];
+        do{
+            if(sideOf(face[e],p)<0)
+                return false;
+            e=next[twin[e]];
+        }while(e!=outgoing[v]);
+        return true;
+    }
+
+    /**
+     * Returns the side of p with respect to the face f, computing it only once per stamp.
+     */
+    private int sideOf(int f,Point p){
+        if(faceMark[f]!=stamp){
+            faceMark[f]=stamp;
+            faceSide[f]=planes[f].side(p);
+        }
+        return faceSide[f];
+    }
+
+    /**
+     * Looks for a face visible from p by walking on the faces of the polytope. Each face is seen as the cone between
+     * itself and the centroid c of the 4 vertices of the basis: the walk goes from the hint face to the cone containing
+     * the ray from c to p, crossing at each step an edge whose plane through c separates the current cone from p.
+     * If the cone containing the ray is reached and its face is not visible, p is inside the polytope.
+     * If the walk takes too many steps, every face is tested.
+     * Time Complexity: O(number of visited faces+their number of edges).
+     * @param p a three-dimensional point.
+     * @return a face visible from p, or -1 if p is not outside the polytope.
+     */
+    private int locate(Point p){
+        int [] coordinates=vertices.getCoordinates();
+        long cx=0,cy=0,cz=0;
+        for(int b:basis){
+            cx+=coordinates[3*b];
+            cy+=coordinates[3*b+1];
+            cz+=coordinates[3*b+2];
+        }
+        long px=4L*p.getCoordinate(0)-cx,py=4L*p.getCoordinate(1)-cy,pz=4L*p.getCoordinate(2)-cz;
+        int f=(hint>=0 && hint<faceBound && faceEdge[hint]>=0)?hint:liveFace();
+        for(int steps=0;steps<=numberOfFaces;steps++){
+            int e=faceEdge[f];
+            int crossed=-1;
+            do{
+                int a=3*origin[e],b=3*origin[next[e]];
+                if(sign(4L*coordinates[a]-cx,4L*coordinates[a+1]-cy,4L*coordinates[a+2]-cz,
+                        4L*coordinates[b]-cx,4L*coordinates[b+1]-cy,4L*coordinates[b+2]-cz,px,py,pz)<0){
+                    crossed=face[twin[e]];
+                    break;
+                }
+                e=next[e];
+            }while(e!=faceEdge[f]);
+            if(crossed<0){
+                hint=f;
+                return (planes[f].side(p)>0)?f:-1;
+            }
+            f=crossed;
+        }
+        for(f=0;f<faceBound;f++)
+            if(faceEdge[f]>=0 && planes[f].side(p)>0)
+                return f;
+        return -1;
+    }
+
+    private int liveFace(){
+        int f=0;
+        while(faceEdge[f]<0)
+            f++;
+        return f;
+    }
+
+    /**
+     * Checks if the polytope would still have 4 affinely independent vertices if p were removed, and replaces p in
+     * the basis if needed.
+     * Time Complexity: O(1) if p is not in the basis, O(|vertices|) otherwise. Space Complexity: O(1)
+     */
+    private boolean staysFullDimensionAfterDeletion(int id){
+        int k=0;
+        while(k<4 && basis[k]!=id) k++;
+        if(k==4)
+            return true;
+        int [] others=new int[3];
+        for(int i=0,j=0;i<4;i++)
+            if(i!=k)
+                others[j++]=basis[i];
+        Hyperplane hyperplane=Hyperplane.through(vertices,others);
+        int [] coordinates=vertices.getCoordinates();
+        for(int i=0;i<vertices.size();i++){
+            int q=vertices.getId(i);
+            if(q!=id && hyperplane.side(coordinates,3*q)!=0){
+                basis[k]=q;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the extremal point p from the polytope, if the polytope stays full-dimensional.
+     * The faces around p are deleted, and the hole they leave, bounded by the link of p, is filled by the faces of the
+     * convex hull of the link that are visible from p or whose plane contains p. The half-edges of the border of the
+     * hole are reused by these faces. A new face lying on the plane of a face around the hole is merged into it.
+     * Time Complexity: O(number of edges around p) plus the cost of the convex hull of the link.
+     * @param p an extremal point of the polytope.
+     * @return true if p has been removed, false if p is not a vertex or the polytope would be flat.
+     */
+    @Override
+    public boolean removeExtremalPoint(Point p) {
+        int v=vertices.idOf(p);
+        if(v<0 || !staysFullDimensionAfterDeletion(v))
+            return false;
+        stamp++;
+        //Collects the border of the hole and the half-edges incident to v.
+        int size=0,spokes=0;
+        int [] border=horizon;
+        int e=outgoing[v];
+        do{
+            int q=next[e];
+            while(q!=prev[e]){
+                if(size==border.length)
+                    border=horizon=Arrays.copyOf(border,2*border.length);
+                border[size++]=q;
+                q=next[q];
+            }
+            if(spokes+2>buffer.length)
+                buffer=Arrays.copyOf(buffer,2*buffer.length);
+            buffer[spokes++]=e;
+            buffer[spokes++]=prev[e];
+            freeFace(face[e]);
+            e=twin[prev[e]];
+        }while(e!=outgoing[v]);
+        int [] coordinates=vertices.getCoordinates();
+        int [] borderFrom=new int[vertices.getIdBound()];
+        ArrayList<Point> link=new ArrayList<>(size);
+        for(int k=0;k<size;k++){
+            borderFrom[origin[border[k]]]=border[k];
+            outgoing[origin[border[k]]]=border[k];
+            link.add(vertices.getPoint(origin[border[k]]));
+        }
+        ArrayList<Point> firsts=new ArrayList<>(4);
+        ArrayList<Point> others=new ArrayList<>(size);
+        for(Point q:link){
+            if(firsts.size()<4){
+                firsts.add(q);
+                if(GaussianEliminationLite.getRank(firsts)==firsts.size())
+                    continue;
+                firsts.remove(firsts.size()-1);
+            }
+            others.add(q);
+        }
+        if(firsts.size()<4){
+            //The link is flat: the hole is filled by a single face.
+            int [] ids={vertices.idOf(firsts.get(0)),vertices.idOf(firsts.get(1)),vertices.idOf(firsts.get(2))};
+            Hyperplane h=Hyperplane.through(coordinates,3,ids);
+            int g=newFace((h.side(coordinates,3*v)<0)?h.opposite():h);
+            for(int k=0;k<size;k++){
+                face[border[k]]=g;
+                link(border[k],border[(k+1)%size]);
+            }
+            faceEdge[g]=border[0];
+            addPyramid(g,coordinates,3*v,true);
+        }
+        else {
+            HalfEdgePolytope hull=new HalfEdgePolytope();
+            hull.createSimplex(firsts);
+            for(Point q:others)
+                if(!hull.addExtremalPoint(q))
+                    throw new RuntimeException("The link of "+p+" is not in convex position");
+            fillHole(hull,v,borderFrom);
+        }
+        for(int k=0;k<spokes;k++)
+            freeEdge(buffer[k]);
+        vertices.removeId(v);
+        //Merges the new faces into the coplanar faces around the hole.
+        for(int k=0;k<size;k++){
+            int b=border[k];
+            if(edgeMark[b]!=stamp && planes[face[b]].equals(planes[face[twin[b]]]))
+                merge(b);
+        }
+        hint=face[outgoing[origin[border[0]]]];
+        return true;
+    }
+
+    /**
+     * Copies into the hole the faces of hull that are visible from v or whose plane contains v, reusing the half-edges
+     * of the border for the edges of the link.
+     */
+    private void fillHole(HalfEdgePolytope hull,int v,int [] borderFrom){
+        int [] coordinates=vertices.getCoordinates();
+        int [] ids=new int[hull.vertices.getIdBound()];
+        for(int i=0;i<hull.vertices.size();i++){
+            int id=hull.vertices.getId(i);
+            ids[id]=vertices.idOf(hull.vertices.getPoint(id));
+        }
+        HashMap<Long,Integer> open=new HashMap<>();
+        for(int f=0;f<hull.faceBound;f++){
+            if(hull.faceEdge[f]<0 || hull.planes[f].side(coordinates,3*v)<0)
+                continue;
+            int g=newFace(hull.planes[f]);
+            int first=-1,last=-1;
+            int he=hull.faceEdge[f];
+            do{
+                int x=ids[hull.origin[he]],y=ids[hull.origin[hull.next[he]]];
+                int e;
+                if(hull.planes[hull.face[hull.twin[he]]].side(coordinates,3*v)<0){
+                    e=borderFrom[x];
+                    if(origin[twin[e]]!=y)
+                        throw new RuntimeException("The new faces don't match the border of the hole");
+                    face[e]=g;
+                }
+                else {
+                    e = newEdge(x, g);
+                    pair(open,x,y,e);
+                }
+                if(first<0)
+                    first=e;
+                else
+                    link(last,e);
+                last=e;
+                he=hull.next[he];
+            }while(he!=hull.faceEdge[f]);
+            link(last,first);
+            faceEdge[g]=first;
+            if(hull.planes[f].side(coordinates,3*v)>0)
+                addPyramid(g,coordinates,3*v,true);
+        }
+    }
+
+    /**
+     * Removes the edge of the half-edge b, merging its face into the face of its twin.
+     * Time Complexity: O(number of edges of the face of b)
+     */
+    private void merge(int b){
+        int t=twin[b];
+        int f=face[b],g=face[t];
+        for(int e=next[b];e!=b;e=next[e])
+            face[e]=g;
+        int pb=prev[b],nb=next[b],pt=prev[t],nt=next[t];
+        link(pb,nt);
+        link(pt,nb);
+        faceEdge[g]=nb;
+        outgoing[origin[b]]=nt;
+        outgoing[origin[t]]=nb;
+        edgeMark[b]=stamp;
+        edgeMark[t]=stamp;
+        freeEdge(b);
+        freeEdge(t);
+        freeFace(f);
+    }
+
+    /**
+     * Records the half-edge e from x to y, and connects it to its twin if the twin was recorded before.
+     */
+    private void pair(HashMap<Long,Integer> open,int x,int y,int e){
+        Integer t=open.remove(((long)y<<32)|x);
+        if(t==null)
+            open.put(((long)x<<32)|y,e);
+        else{
+            twin[e]=t;
+            twin[t]=e;
+        }
+    }
+
+    private Hyperplane orientedPlane(int [] cycle,int below){
+        int [] coordinates=vertices.getCoordinates();
+        Hyperplane h=Hyperplane.through(coordinates,3,cycle);
+        return (h.side(coordinates,3*below)>0)?h.opposite():h;
+    }
+
+    private void link(int e,int n){
+        next[e]=n;
+        prev[n]=e;
+    }
+
+    private int newEdge(int o,int f){
+        int e;
+        if(numberOfFreeEdges>0)
+            e=freeEdges[--numberOfFreeEdges];
+        else{
+            if(edgeBound==origin.length){
+                int length=2*origin.length;
+                origin=Arrays.copyOf(origin,length);
+                twin=Arrays.copyOf(twin,length);
+                next=Arrays.copyOf(next,length);
+                prev=Arrays.copyOf(prev,length);
+                face=Arrays.copyOf(face,length);
+                edgeMark=Arrays.copyOf(edgeMark,length);
+                freeEdges=Arrays.copyOf(freeEdges,length);
+            }
+            e=edgeBound++;
+        }
+        origin[e]=o;
+        face[e]=f;
+        edgeMark[e]=0;
+        return e;
+    }
+
+    private void freeEdge(int e){
+        face[e]=-1;
+        freeEdges[numberOfFreeEdges++]=e;
+    }
+
+    private int newFace(Hyperplane h){
+        int f;
+        if(numberOfFreeFaces>0)
+            f=freeFaces[--numberOfFreeFaces];
+        else{
+            if(faceBound==faceEdge.length){
+                int length=2*faceEdge.length;
+                faceEdge=Arrays.copyOf(faceEdge,length);
+                planes=Arrays.copyOf(planes,length);
+                faceMark=Arrays.copyOf(faceMark,length);
+                faceSide=Arrays.copyOf(faceSide,length);
+                freeFaces=Arrays.copyOf(freeFaces,length);
+            }
+            f=faceBound++;
+        }
+        planes[f]=h;
+        faceMark[f]=0;
+        numberOfFaces++;
+        return f;
+    }
+
+    private void freeFace(int f){
+        faceEdge[f]=-1;
+        planes[f]=null;
+        freeFaces[numberOfFreeFaces++]=f;
+        numberOfFaces--;
+    }
+
+    private void ensureVertexCapacity(){
+        int bound=vertices.getIdBound();
+        if(bound>outgoing.length){
+            outgoing=Arrays.copyOf(outgoing,Math.max(bound,2*outgoing.length));
+            vertexMark=Arrays.copyOf(vertexMark,outgoing.length);
+        }
+    }
+
+    /**
+     * Returns the sign of det(b-a,c-a,d-a) for four points of a flat coordinate buffer.
+     */
+    private static int orientation(int [] coordinates,int a,int b,int c,int d){
+        a*=3;
+        b*=3;
+        c*=3;
+        d*=3;
+        return sign(coordinates[b]-(long)coordinates[a],coordinates[b+1]-(long)coordinates[a+1],
+                coordinates[b+2]-(long)coordinates[a+2],coordinates[c]-(long)coordinates[a],
+                coordinates[c+1]-(long)coordinates[a+1],coordinates[c+2]-(long)coordinates[a+2],
+                coordinates[d]-(long)coordinates[a],coordinates[d+1]-(long)coordinates[a+1],
+                coordinates[d+2]-(long)coordinates[a+2]);
+    }
+
+    /**
+     * Adds to the volume, or subtracts from it, six times the volume of the pyramid whose base is the face f and whose
+     * apex is stored in a coordinate buffer. The face is split into a fan of triangles around one of its vertices,
+     * whose determinants all have the same sign since the apex is not on the plane of the face.
+     * Time Complexity: O(number of edges of f), Space Complexity: O(1) unless the volume overflows a long.
+     * @param f a face of the polytope.
+     * @param apex a coordinate buffer.
+     * @param offset the position of the apex in the buffer.
+     * @param subtract true if the pyramid is removed from the polytope.
+     */
+    private void addPyramid(int f,int [] apex,int offset,boolean subtract){
+        int [] coordinates=vertices.getCoordinates();
+        long x=apex[offset],y=apex[offset+1],z=apex[offset+2];
+        int first=faceEdge[f];
+        int a=3*origin[first];
+        try {
+            long sum=0;
+            for(int e=next[first];next[e]!=first;e=next[e]){
+                int b=3*origin[e],c=3*origin[next[e]];
+                sum=Math.addExact(sum,determinant(coordinates[a]-x,coordinates[a+1]-y,coordinates[a+2]-z,
+                        coordinates[b]-x,coordinates[b+1]-y,coordinates[b+2]-z,
+                        coordinates[c]-x,coordinates[c+1]-y,coordinates[c+2]-z));
+            }
+            addNormalizedVolume((sum<0 ^ subtract)?Math.negateExact(sum):sum);
+        } catch (ArithmeticException ex){
+            BigInteger sum=BigInteger.ZERO;
+            for(int e=next[first];next[e]!=first;e=next[e]){
+                int b=3*origin[e],c=3*origin[next[e]];
+                sum=sum.add(bigDeterminant(coordinates[a]-x,coordinates[a+1]-y,coordinates[a+2]-z,
+                        coordinates[b]-x,coordinates[b+1]-y,coordinates[b+2]-z,
+                        coordinates[c]-x,coordinates[c+1]-y,coordinates[c+2]-z));
+            }
+            addNormalizedVolume((sum.signum()<0 ^ subtract)?sum.negate():sum);
+        }
+    }
+
+    /**
+     * Returns the sign of the determinant of three vectors, computed with checked longs, or with BigIntegers if a
+     * product overflows.
+     * Time and Space Complexity: O(1)
+     */
+    private static int sign(long ax,long ay,long az,long bx,long by,long bz,long cx,long cy,long cz){
+        try {
+            return Long.signum(determinant(ax,ay,az,bx,by,bz,cx,cy,cz));
+        } catch (ArithmeticException e){
+            return bigDeterminant(ax,ay,az,bx,by,bz,cx,cy,cz).signum();
+        }
+    }
+
+    /**
+     * Returns the determinant of three vectors, computed with checked longs.
+     * @throws ArithmeticException if a product overflows.
+     */
+    private static long determinant(long ax,long ay,long az,long bx,long by,long bz,long cx,long cy,long cz){
+        long x=Math.subtractExact(Math.multiplyExact(by,cz),Math.multiplyExact(bz,cy));
+        long y=Math.subtractExact(Math.multiplyExact(bz,cx),Math.multiplyExact(bx,cz));
+        long z=Math.subtractExact(Math.multiplyExact(bx,cy),Math.multiplyExact(by,cx));
+        return Math.addExact(Math.addExact(Math.multiplyExact(ax,x),Math.multiplyExact(ay,y)),Math.multiplyExact(az,z));
+    }
+
+    /**
+     * Returns the determinant of three vectors, computed with BigIntegers.
+     */
+    private static BigInteger bigDeterminant(long ax,long ay,long az,long bx,long by,long bz,long cx,long cy,long cz){
+        BigInteger x=BigInteger.valueOf(by).multiply(BigInteger.valueOf(cz))
+                .subtract(BigInteger.valueOf(bz).multiply(BigInteger.valueOf(cy)));
+        BigInteger y=BigInteger.valueOf(bz).multiply(BigInteger.valueOf(cx))
+                .subtract(BigInteger.valueOf(bx).multiply(BigInteger.valueOf(cz)));
+        BigInteger z=BigInteger.valueOf(bx).multiply(BigInteger.valueOf(cy))
+                .subtract(BigInteger.valueOf(by).multiply(BigInteger.valueOf(cx)));
+        return BigInteger.valueOf(ax).multiply(x).add(BigInteger.valueOf(ay).multiply(y))
+                .add(BigInteger.valueOf(az).multiply(z));
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package polytope;
+
+import toolkit.GaussianEliminationLite;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * An oriented hyperplane {x : alpha.x=beta} with integer coefficients. The coefficients (alpha_1,...,alpha_d,beta) are
+ * divided by their gcd, so two facets of a polytope lying on the same hyperplane have equal Hyperplanes, and they are
+ * stored in the narrowest type that fits: ints, longs or BigIntegers.
+ * Evaluations are first done with doubles, and the exact computation is only done if the result is too close to zero
+ * to be trusted.
+ */
+public final class Hyperplane {
+    private static final double EPSILON=Math.ulp(1.0);
+
+    private final int dimension;
+    private final int [] intCoefficients;
+    private final long [] longCoefficients;
+    private final BigInteger [] coefficients;
+    private final double [] approximation;
+    private final int hash;
+
+    private Hyperplane(long [] pLongCoefficients,BigInteger [] pCoefficients){
+        int [] ints=null;
+        if(pLongCoefficients!=null){
+            ints=new int[pLongCoefficients.length];
+            for(int i=0;ints!=null && i<ints.length;i++) {
+                if (pLongCoefficients[i] != (int) pLongCoefficients[i])
+                    ints = null;
+                else
+                    ints[i] = (int) pLongCoefficients[i];
+            }
+        }
+        intCoefficients=ints;
+        longCoefficients=(ints==null)?pLongCoefficients:null;
+        coefficients=(pLongCoefficients==null)?pCoefficients:null;
+        if(ints!=null) {
+            dimension = ints.length - 1;
+            hash=Arrays.hashCode(ints);
+        }
+        else if(longCoefficients!=null) {
+            dimension = longCoefficients.length - 1;
+            hash=Arrays.hashCode(longCoefficients);
+        }
+        else {
+            dimension = coefficients.length - 1;
+            hash=Arrays.hashCode(coefficients);
+        }
+        approximation=approximate();
+    }
+
+    /**
+     * Computes the hyperplane through the d first points of a list of ids, oriented arbitrarily.
+     * Time complexity: O(1) in dimensions 2 and 3, O(d^3) otherwise.
+     * @param table the table containing the points.
+     * @param ids the ids of at least d affinely independent points of the table.
+     * @return the hyperplane through the points.
+     */
+    static Hyperplane through(VertexTable table,int [] ids){
+        return through(table.getCoordinates(),table.getDimension(),ids);
+    }
+
+    /**
+     * Same as through on a VertexTable, on a flat coordinate buffer.
+     * @param coordinates a flat buffer of coordinates.
+     * @param dimension the dimension of the points.
+     * @param ids the ids of at least d affinely independent points of the buffer.
+     * @return the hyperplane through the points.
+     */
+    static Hyperplane through(int [] coordinates,int dimension,int [] ids){
+        GaussianEliminationLite gel=GaussianEliminationLite.normalVector(coordinates,dimension,ids);
+        long [] longSolution=gel.getLongSolution();
+        return new Hyperplane(longSolution,(longSolution==null)?gel.getSolution():null);
+    }
+
+    /**
+     * Returns the same hyperplane with the opposite orientation.
+     * Time and Space Complexity: O(d)
+     * @return the same hyperplane with the opposite orientation.
+     */
+    public Hyperplane opposite(){
+        BigInteger [] c=getCoefficients();
+        for(int i=0;i<c.length;i++)
+            c[i]=c[i].negate();
+        long [] l=new long[c.length];
+        for(int i=0;i<c.length;i++) {
+            if (c[i].bitLength() >= 64)
+                return new Hyperplane(null,c);
+            l[i] = c[i].longValue();
+        }
+        return new Hyperplane(l,null);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns a copy of the coefficients (alpha_1,...,alpha_d,beta).
+     * @return a copy of the coefficients (alpha_1,...,alpha_d,beta).
+     */
+    public BigInteger [] getCoefficients(){
+        BigInteger [] res=new BigInteger[dimension+1];
+        for(int i=0;i<=dimension;i++) {
+            if (intCoefficients != null)
+                res[i] = BigInteger.valueOf(intCoefficients[i]);
+            else if (longCoefficients != null)
+                res[i] = BigInteger.valueOf(longCoefficients[i]);
+            else
+                res[i] = coefficients[i];
+        }
+        return res;
+    }
+
+    /**
+     * Returns the sign of alpha.p-beta.
+     * Time Complexity: O(d), Space Complexity: O(1)
+     * @param p a d-dimensional point.
+     * @return 1 if p is above the hyperplane, 0 if it is on the hyperplane, -1 otherwise.
+     */
+    public int side(Point p){
+        if(approximation!=null){
+            int res=filteredSide(p);
+            if(res!=0)
+                return res;
+        }
+        if(coefficients==null) {
+            try {
+                return Long.signum(longValueAt(p));
+            } catch (ArithmeticException e) {
+                //The evaluation overflows: falls back to BigIntegers.
+            }
+        }
+        return valueAt(p).signum();
+    }
+
+    /**
+     * Computes the side of a block of points stored in a flat coordinate buffer: the coordinates of the k-th point are
+     * read at positions k*d..(k+1)*d-1. The floating-point filter is first run over the whole block, and the points
+     * whose sign is uncertain are then evaluated exactly.
+     * Time Complexity: O(count*d), Space Complexity: O(1)
+     * @param points a flat buffer of coordinates.
+     * @param count the number of points of the block.
+     * @param res a tabular of at least count elements, in which the side of the k-th point is stored at position k.
+     */
+    public void sides(int [] points,int count,int [] res){
+        if(approximation!=null) {
+            double [] a=approximation;
+            double bound=(dimension+2)*EPSILON;
+            for (int k = 0, base = 0; k < count; k++, base += dimension) {
+                double sum=-a[dimension];
+                double magnitude=Math.abs(a[dimension]);
+                for(int i=0;i<dimension;i++){
+                    double t=a[i]*points[base+i];
+                    sum+=t;
+                    magnitude+=Math.abs(t);
+                }
+                magnitude*=bound;
+                res[k]=(sum>magnitude)?1:((sum<-magnitude)?-1:0);
+            }
+        }
+        else
+            Arrays.fill(res,0,count,0);
+        for(int k=0;k<count;k++)
+            if(res[k]==0)
+                res[k]=exactSide(points,k*dimension);
+    }
+
+    /**
+     * Same as side on a point, on a point stored in a flat coordinate buffer.
+     * Time Complexity: O(d), Space Complexity: O(1)
+     * @param points a flat buffer of coordinates.
+     * @param base the position of the first coordinate of the point.
+     * @return 1 if the point is above the hyperplane, 0 if it is on the hyperplane, -1 otherwise.
+     */
+    public int side(int [] points,int base){
+        if(approximation!=null){
+            double [] a=approximation;
+            double sum=-a[dimension];
+            double magnitude=Math.abs(a[dimension]);
+            for(int i=0;i<dimension;i++){
+                double t=a[i]*points[base+i];
+                sum+=t;
+                magnitude+=Math.abs(t);
+            }
+            magnitude*=(dimension+2)*EPSILON;
+            if(sum>magnitude)
+                return 1;
+            if(sum<-magnitude)
+                return -1;
+        }
+        return exactSide(points,base);
+    }
+
+    /**
+     * Computes the sign of alpha.p-beta for a point stored in a flat coordinate buffer, without floating-point filter.
+     * Time Complexity: O(d), Space Complexity: O(1)
+     * @param points a flat buffer of coordinates.
+     * @param base the position of the first coordinate of the point.
+     * @return the sign of alpha.p-beta
+     */
+    private int exactSide(int [] points,int base){
+        try {
+            long sum;
+            if (intCoefficients != null) {
+                sum = -(long) intCoefficients[dimension];
+                for (int i = 0; i < dimension; i++)
+                    sum = Math.addExact(sum, (long) intCoefficients[i] * points[base + i]);
+                return Long.signum(sum);
+            }
+            if (longCoefficients != null) {
+                sum = Math.negateExact(longCoefficients[dimension]);
+                for (int i = 0; i < dimension; i++)
+                    sum = Math.addExact(sum, Math.multiplyExact(longCoefficients[i], points[base + i]));
+                return Long.signum(sum);
+            }
+        } catch (ArithmeticException e){
+            //The evaluation overflows: falls back to BigIntegers.
+        }
+        BigInteger [] c=(coefficients!=null)?coefficients:getCoefficients();
+        BigInteger sum=c[dimension].negate();
+        for(int i=0;i<dimension;i++)
+            sum=sum.add(c[i].multiply(BigInteger.valueOf(points[base+i])));
+        return sum.signum();
+    }
+
+    /**
+     * Computes alpha.p-beta using longs.
+     * Time Complexity: O(d), Space Complexity: O(1)
+     * @param p a d-dimensional point.
+     * @return alpha.p-beta
+     * @throws ArithmeticException if the coefficients or the result do not fit in longs.
+     */
+    public long longValueAt(Point p){
+        long sum;
+        if(intCoefficients!=null){
+            sum=-(long)intCoefficients[dimension];
+            for(int i=0;i<dimension;i++)
+                sum=Math.addExact(sum,(long)intCoefficients[i]*p.getCoordinate(i));
+            return sum;
+        }
+        if(longCoefficients==null)
+            throw new ArithmeticException("The coefficients do not fit in longs");
+        sum=Math.negateExact(longCoefficients[dimension]);
+        for(int i=0;i<dimension;i++)
+            sum=Math.addExact(sum,Math.multiplyExact(longCoefficients[i],p.getCoordinate(i)));
+        return sum;
+    }
+
+    /**
+     * Computes alpha.p-beta using BigIntegers.
+     * Time Complexity: O(d), Space Complexity: O(1)
+     * @param p a d-dimensional point.
+     * @return alpha.p-beta
+     */
+    public BigInteger valueAt(Point p){
+        BigInteger [] c=(coefficients!=null)?coefficients:getCoefficients();
+        BigInteger sum=c[dimension].negate();
+        for(int i=0;i<dimension;i++)
+            sum=sum.add(c[i].multiply(BigInteger.valueOf(p.getCoordinate(i))));
+        return sum;
+    }
+
+    /**
+     * Stores the coefficients as doubles. Returns null if one of them is too large to be represented by a double.
+     */
+    private double [] approximate(){
+        double [] res=new double[dimension+1];
+        for(int i=0;i<=dimension;i++) {
+            if (intCoefficients != null)
+                res[i] = intCoefficients[i];
+            else if (longCoefficients != null)
+                res[i] = longCoefficients[i];
+            else
+                res[i] = coefficients[i].doubleValue();
+            if(Double.isInfinite(res[i]))
+                return null;
+        }
+        return res;
+    }
+
+    /**
+     * Tries to compute the sign of alpha.p-beta using doubles.
+     * The products and the sum are rounded at most d+2 times, each time with a relative error smaller than EPSILON/2,
+     * so the error on the result is smaller than (d+2)*EPSILON times the sum of the absolute values of the terms.
+     * If the result is larger than this bound, its sign is exact.
+     * Time Complexity: O(d), Space Commplexity: O(1).
+     * @param p a point.
+     * @return the sign of alpha.p-beta if it has been certified, 0 if it is too close to zero.
+     */
+    private int filteredSide(Point p){
+        double [] a=approximation;
+        double sum=-a[dimension];
+        double magnitude=Math.abs(a[dimension]);
+        for(int i=0;i<dimension;i++){
+            double t=a[i]*p.getCoordinate(i);
+            sum+=t;
+            magnitude+=Math.abs(t);
+        }
+        double bound=(dimension+2)*EPSILON*magnitude;
+        if(sum>bound)
+            return 1;
+        if(sum<-bound)
+            return -1;
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this==o)
+            return true;
+        if(!(o instanceof Hyperplane))
+            return false;
+        Hyperplane h=(Hyperplane) o;
+        if(hash!=h.hash || dimension!=h.dimension)
+            return false;
+        if(intCoefficients!=null)
+            return Arrays.equals(intCoefficients,h.intCoefficients);
+        if(longCoefficients!=null)
+            return Arrays.equals(longCoefficients,h.longCoefficients);
+        return Arrays.equals(coefficients,h.coefficients);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(getCoefficients());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package polytope;
+
+/**
+ * The set of lattice points of the box [0,boxSize]^d.
+ * Each point of the box is encoded by a mixed-radix key, the sum of x_i*(boxSize+1)^i, and the box keeps
+ * a single canonical Point per key. Points are only created the first time their key is requested, and the table
+ * is bounded: it holds at most min((boxSize+1)^d, maximumSize) points. Once it is full, the points that are not in
+ * the table are created at each request and are not canonical.
+ */
+public class LatticeBox {
+    private static final int INITIAL_CAPACITY=1024;
+    private static final int DEFAULT_MAXIMUM_SIZE=1<<16; //a few megabytes of points in small dimensions.
+
+    private final int dimension;
+    private final int boxSize;
+    private final int maximumSize;
+
+    private long [] keys=new long[INITIAL_CAPACITY];
+    private Point [] points=new Point[INITIAL_CAPACITY];
+    private int size=0;
+
+    /**
+     * Creates the box [0,pBoxSize]^pDimension, which interns at most DEFAULT_MAXIMUM_SIZE points. Throws an exception
+     * if its points can't be encoded in a long.
+     * @param pDimension the dimension of the box.
+     * @param pBoxSize the side of the box.
+     */
+    public LatticeBox(int pDimension,int pBoxSize){
+        this(pDimension,pBoxSize,DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates the box [0,pBoxSize]^pDimension, which interns at most pMaximumSize points. Throws an exception if its
+     * points can't be encoded in a long.
+     * @param pDimension the dimension of the box.
+     * @param pBoxSize the side of the box.
+     * @param pMaximumSize the maximal number of canonical points kept by the box, 0 to disable interning.
+     */
+    public LatticeBox(int pDimension,int pBoxSize,int pMaximumSize){
+        dimension=pDimension;
+        boxSize=pBoxSize;
+        maximumSize=pMaximumSize;
+        long n=1;
+        try {
+            for (int i = 0; i < dimension; i++)
+                n = Math.multiplyExact(n, (long) boxSize + 1);
+        } catch (ArithmeticException e){
+            throw new RuntimeException("The points of a box of side "+boxSize+" in dimension "+dimension+" can't be encoded in a long");
+        }
+    }
+
+    /**
+     * Returns the dimension of the box.
+     * @return the dimension of the box.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the side of the box.
+     * @return the side of the box.
+     */
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * Computes the key of a point of the box.
+     * Time Complexity: O(d), Space Complexity: O(1)
+     * @param coordinates the d coordinates of a point of the box.
+     * @return the mixed-radix key of the point.
+     */
+    private long key(int [] coordinates){
+        long res=0;
+        for(int i=dimension-1;i>=0;i--){
+            if(coordinates[i]<0 || coordinates[i]>boxSize)
+                throw new RuntimeException("Coordinate "+coordinates[i]+" is out of the box [0,"+boxSize+"]");
+            res=res*(boxSize+1)+coordinates[i];
+        }
+        return res;
+    }
+
+    /**
+     * Returns the canonical instance of the point whose coordinates are given.
+     * The tabular is copied only the first time the point is requested. If the table is full and doesn't contain the
+     * point, a new Point that isn't canonical is returned: it is only equal to the other instances by its coordinates.
+     * Amortized Time Complexity: O(d), Space Complexity: O(d) the first time, O(1) afterwards.
+     * @param coordinates the d coordinates of a point of the box.
+     * @return the unique Point of the box with these coordinates, or a new Point if the table is full.
+     */
+    public Point intern(int [] coordinates){
+        long k=key(coordinates);
+        int mask=keys.length-1;
+        int i=slot(k,mask);
+        while(points[i]!=null){
+            if(keys[i]==k)
+                return points[i];
+            i=(i+1)&mask;
+        }
+        if(size>=maximumSize)
+            return new Point(coordinates);
+        Point p=new Point(coordinates,this);
+        keys[i]=k;
+        points[i]=p;
+        if(++size*2>keys.length)
+            grow();
+        return p;
+    }
+
+    private static int slot(long k,int mask){
+        long h=k*0x9E3779B97F4A7C15L;
+        return (int)(h^(h>>>32))&mask;
+    }
+
+    private void grow(){
+        long [] oldKeys=keys;
+        Point [] oldPoints=points;
+        keys=new long[oldKeys.length*2];
+        points=new Point[oldPoints.length*2];
+        int mask=keys.length-1;
+        for(int j=0;j<oldKeys.length;j++){
+            if(oldPoints[j]!=null){
+                int i=slot(oldKeys[j],mask);
+                while(points[i]!=null)
+                    i=(i+1)&mask;
+                keys[i]=oldKeys[j];
+                points[i]=oldPoints[j];
+            }
+        }
+    }
+}
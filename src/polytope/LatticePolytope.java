@@ -31,30 +31,30 @@
 package polytope;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
 
-public class LatticePolytope  extends AbstractPolytope {
+public abstract class LatticePolytope  extends AbstractPolytope {
     int dimension;
-    protected ArrayList<Point> points=new ArrayList<>();
 
     @Override
     public boolean containsExtremalPoint(Point p) {
-        return points.contains(p);
+        return getPoints().contains(p);
     }
 
-    @Override
-    public ArrayList<Point> getPoints() {
-        return points;
-    }
-
-    public void addPoint(Point p){
-        points.add(p);
-    }
+    public abstract void addPoint(Point p);
 
+    /**
+     * Print the list of extremal points in the lexicographical order, where a point's coordinate is delimited with parenthesis.
+     * @return a string containing the sorted list of extremal points.
+     */
     @Override
     public String toString() {
-        points.sort(Point::compare);
-        return super.toString();
+        ArrayList<Point> sorted=new ArrayList<>(getPoints());
+        sorted.sort(Point::compare);
+        StringBuilder sb=new StringBuilder();
+        for(Point p:sorted)
+            Point.addToPrint(p,sb);
+        return sb.toString();
     }
 
     @Override
@@ -62,12 +62,12 @@ public class LatticePolytope  extends AbstractPolytope {
         if(!(o instanceof LatticePolytope))
             throw new RuntimeException("Ridges must be compared with other Ridges");
         LatticePolytope r=(LatticePolytope) o;
-        //if(o instanceof Facet)
-            //System.out.println("Test d'égalité de la facette "+o+" avec "+this);
-        if(r.points.size()!=points.size())
+        Collection<Point> points=getPoints();
+        Collection<Point> otherPoints=r.getPoints();
+        if(otherPoints.size()!=points.size())
             return false;
-        for(int i=0;i<points.size();i++)
-            if(!r.points.contains(points.get(i)))
+        for(Point p:points)
+            if(!otherPoints.contains(p))
                 return false;
         return true;
     }
@@ -31,17 +31,23 @@
 package polytope;
 
 import java.util.ArrayList;
-import java.util.Objects;
+import java.util.Arrays;
 
 public class Point {
-    private final ArrayList<Integer> coordinates;
+    private final int [] coordinates;
+    private final int hash;
+    private final LatticeBox box;
 
     /**
      * Construct a d-dimensional point whose coordinates are given by an ArrayList of d integers.
      * @param pCoordinates is a list of integers, the coordinates of the point.
      */
     public Point(ArrayList<Integer> pCoordinates) {
-        this.coordinates = pCoordinates;
+        coordinates=new int[pCoordinates.size()];
+        for(int i=0;i<coordinates.length;i++)
+            coordinates[i]=pCoordinates.get(i);
+        hash=Arrays.hashCode(coordinates);
+        box=null;
     }
 
 
@@ -50,9 +56,18 @@ public class Point {
      * @param pCoordinates is a tabular of integers, the coordinates of the point.
      */
     public Point(int [] pCoordinates){
-        coordinates=new ArrayList<>();
-        for(int x:pCoordinates)
-            coordinates.add(x);
+        this(pCoordinates,null);
+    }
+
+    /**
+     * Construct the canonical instance of a point of a LatticeBox. Only called by LatticeBox.intern.
+     * @param pCoordinates is a tabular of integers, the coordinates of the point.
+     * @param pBox the box which interned the point, or null.
+     */
+    Point(int [] pCoordinates,LatticeBox pBox){
+        coordinates=pCoordinates.clone();
+        hash=Arrays.hashCode(coordinates);
+        box=pBox;
     }
 
     /**
@@ -61,9 +76,10 @@ public class Point {
      * @param dimension is the dimension of the point.
      */
     public Point(int value,int dimension){
-        coordinates=new ArrayList<>();
-        for(int i=0;i<dimension;i++)
-            coordinates.add(value);
+        coordinates=new int[dimension];
+        Arrays.fill(coordinates,value);
+        hash=Arrays.hashCode(coordinates);
+        box=null;
     }
 
     /**
@@ -71,7 +87,7 @@ public class Point {
      * @return the number of coordinates.
      */
     public int getDimension(){
-        return coordinates.size();
+        return coordinates.length;
     }
 
     /**
@@ -80,7 +96,7 @@ public class Point {
      * @return the i-th coordinate of a point.
      */
     public int getCoordinate(int i){
-        return coordinates.get(i);
+        return coordinates[i];
     }
 
     /**
@@ -120,17 +136,18 @@ public class Point {
     }
 
     /**
-     * Computes the hashcode of a Point, which is equal to the hashcode of its coordinates.
-     * Calls List.hashcode()
+     * Returns the hashcode of a Point, which is equal to the hashcode of its coordinates.
+     * The value is computed once by the constructor, since a Point is immutable.
      * @return the hashcode of a Point, which is equal to the hashcode of its coordinates.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(coordinates);
+        return hash;
     }
 
     /**
-     * Compares two points
+     * Compares two points. Two distinct instances interned by the same LatticeBox are always different,
+     * so in that case the test is a single reference comparison.
      * @param o must be an instance of a Point
      * @return true if all coordinates are equal, false otherwise.
      * @throws RuntimeException
@@ -140,12 +157,11 @@ public class Point {
         if(!(o instanceof Point))
             throw new RuntimeException("Points must be compared with other Points");
         Point p=(Point)o;
-        //System.out.println("Et moi je compare " + this + " et " + p);
-        /*for(int i=0;i<coordinates.size();i++)
-            if(!coordinates.get(i).equals(p.coordinates.get(i)))
-                return false;
-        return true;*/
-        return coordinates.equals(p.coordinates);
+        if(p==this)
+            return true;
+        if(box!=null && box==p.box)
+            return false;
+        return hash==p.hash && Arrays.equals(coordinates,p.coordinates);
     }
 
     /**
@@ -166,14 +182,13 @@ public class Point {
      * @return 1 p1>p2 in the lexicographical order, -1 if p1<p2, 0 if p1=p2
      */
     public static int compare(Point p1,Point p2){
-        int d=p1.getDimension();
-        int i=0;
-        while(i<d){
-            if(p1.getCoordinate(i)<p2.getCoordinate(i))
+        int [] c1=p1.coordinates;
+        int [] c2=p2.coordinates;
+        for(int i=0;i<c1.length;i++){
+            if(c1[i]<c2[i])
                 return -1;
-            else if(p1.getCoordinate(i)>p2.getCoordinate(i))
+            else if(c1[i]>c2[i])
                 return 1;
-            i++;
         }
         return 0;
     }
@@ -186,8 +201,10 @@ public class Point {
      */
     public static double distance(Point p1,Point p2){
         double dist=0.;
-        for(int i=0;i<p1.getDimension();i++)
-            dist+=(p1.getCoordinate(i)-p2.getCoordinate(i))*(p1.getCoordinate(i)-p2.getCoordinate(i));
+        int [] c1=p1.coordinates;
+        int [] c2=p2.coordinates;
+        for(int i=0;i<c1.length;i++)
+            dist+=(c1[i]-c2[i])*(c1[i]-c2[i]);
         return Math.sqrt(dist);
     }
 
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package polytope;
+
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A convex polygon of the lattice, specialized for dimension 2. The vertices are stored in counterclockwise order in a
+ * flat buffer of coordinates, the coordinates of the i-th vertex being at positions 2i and 2i+1. Since the vertices
+ * are in strictly convex position, they are also sorted by angle around the first one, and a point is located in the
+ * triangle fan rooted at the first vertex by binary search.
+ * Twice the area of the polygon is maintained by the shoelace formula when a vertex is added or removed.
+ * Coordinates must be non-negative, so that every orientation test is computed exactly with longs.
+ */
+public class Polygon extends DynamicPolytope {
+    private static final int INITIAL_CAPACITY=16;
+
+    private int [] coordinates=new int[2*INITIAL_CAPACITY];
+    private Point [] vertices=new Point[INITIAL_CAPACITY];
+    private int size=0;
+    private long doubleArea=0;
+    private final List<Point> view=new AbstractList<Point>() {
+        @Override
+        public Point get(int index) {
+            if(index<0 || index>=size)
+                throw new IndexOutOfBoundsException("No vertex at position "+index);
+            return vertices[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    /**
+     * Creates an empty polygon.
+     */
+    public Polygon() {
+        dimension=2;
+    }
+
+    /**
+     * Returns the vertices of the polygon in counterclockwise order. The list is a view of the polygon.
+     * @return the vertices of the polygon in counterclockwise order.
+     */
+    @Override
+    public List<Point> getPoints() {
+        return view;
+    }
+
+    /**
+     * The vertices of a polygon are kept in counterclockwise order, so a point can't be added without locating it.
+     * @param p a two-dimensional point.
+     * @throws RuntimeException always, use addExtremalPoint instead.
+     */
+    @Override
+    public void addPoint(Point p) throws RuntimeException {
+        throw new RuntimeException("The vertices of a polygon must be added with addExtremalPoint");
+    }
+
+    /**
+     * Returns twice the area of the polygon, which is an integer.
+     * Time and Space Complexity: O(1)
+     * @return twice the area of the polygon.
+     */
+    public long getDoubleArea() {
+        return doubleArea;
+    }
+
+    /**
+     * Returns the area of the polygon.
+     * Time and Space Complexity: O(1)
+     * @return the area of the polygon.
+     */
+    public double getArea() {
+        return doubleArea/2.;
+    }
+
+    @Override
+    public BigInteger getNormalizedVolume() {
+        return BigInteger.valueOf(doubleArea);
+    }
+
+    @Override
+    public double getVolume() {
+        return getArea();
+    }
+
+    /**
+     * Time Complexity: O(1), Space Complexity: O(1)
+     * @param pPoints a list of 3 two-dimensional points
+     * @return true if the points are not collinear, false otherwise.
+     */
+    @Override
+    public boolean createSimplex(List<Point> pPoints) {
+        if(pPoints.size()!=3)
+            throw new RuntimeException("A triangle has 3 vertices but "+pPoints.size()+" points were given");
+        Point a=pPoints.get(0),b=pPoints.get(1),c=pPoints.get(2);
+        long orientation=orientation(a.getCoordinate(0),a.getCoordinate(1),b.getCoordinate(0),b.getCoordinate(1),
+                c.getCoordinate(0),c.getCoordinate(1));
+        if(orientation==0)
+            return false;
+        size=0;
+        set(size++,a);
+        if(orientation>0) {
+            set(size++, b);
+            set(size++, c);
+        }
+        else{
+            set(size++, c);
+            set(size++, b);
+        }
+        doubleArea=Math.abs(orientation);
+        return true;
+    }
+
+    /**
+     * Adds p between the vertices v_i and v_{i+1} if the edge (v_i,v_{i+1}) is the only one visible from p, and if p
+     * is strictly on the inner side of the lines of the two edges around it. Otherwise p is inside the polygon or on
+     * its boundary, or a vertex would not be extremal anymore.
+     * Time Complexity: O(log n) to locate p, plus O(n) to shift the buffer when p is added. Space Complexity: O(1)
+     * @param p a two-dimensional point.
+     * @return true if p has been added, false otherwise.
+     */
+    @Override
+    public boolean addExtremalPoint(Point p) {
+        long x=p.getCoordinate(0),y=p.getCoordinate(1);
+        int i=visibleEdge(x,y);
+        if(i<0)
+            return false;
+        int j=next(i);
+        if(orientation(previous(i),i,x,y)<=0 || orientation(j,next(j),x,y)<=0)
+            return false;
+        doubleArea-=orientation(i,j,x,y);
+        if(size==vertices.length)
+            grow();
+        System.arraycopy(vertices,i+1,vertices,i+2,size-i-1);
+        System.arraycopy(coordinates,2*i+2,coordinates,2*i+4,2*(size-i-1));
+        set(i+1,p);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the vertex p from the polygon, unless the polygon is a triangle.
+     * Time Complexity: O(log n) to locate p, plus O(n) to shift the buffer when p is removed. Space Complexity: O(1)
+     * @param p an extremal point of the polygon.
+     * @return true if p has been removed, false if p is not a vertex or if the polygon is a triangle.
+     */
+    @Override
+    public boolean removeExtremalPoint(Point p) {
+        if(size<=3)
+            return false;
+        int i=indexOf(p.getCoordinate(0),p.getCoordinate(1));
+        if(i<0)
+            return false;
+        int j=next(i);
+        doubleArea-=orientation(previous(i),i,coordinates[2*j],coordinates[2*j+1]);
+        System.arraycopy(vertices,i+1,vertices,i,size-i-1);
+        System.arraycopy(coordinates,2*i+2,coordinates,2*i,2*(size-i-1));
+        size--;
+        vertices[size]=null;
+        return true;
+    }
+
+    /**
+     * Time Complexity: O(log n), Space Complexity: O(1)
+     * @param p is a d-dimensional point.
+     * @return true if p is a vertex of the polygon.
+     */
+    @Override
+    public boolean containsExtremalPoint(Point p) {
+        return size>0 && indexOf(p.getCoordinate(0),p.getCoordinate(1))>=0;
+    }
+
+    /**
+     * Returns the edges of the polygon, each one given by its two vertices in counterclockwise order.
+     * Time and Space Complexity: O(n)
+     * @return the list of edges of the polygon.
+     */
+    @Override
+    public List<List<Point>> getFaces() {
+        List<List<Point>> res=new ArrayList<>(size);
+        for(int i=0;i<size;i++)
+            res.add(Arrays.asList(vertices[i],vertices[(i+1)%size]));
+        return res;
+    }
+
+    /**
+     * Returns the position of the vertex (x,y), or -1 if (x,y) is not a vertex.
+     * Time Complexity: O(log n), Space Complexity: O(1)
+     */
+    private int indexOf(long x,long y){
+        if(isVertex(0,x,y))
+            return 0;
+        long first=orientation(0,1,x,y);
+        long last=orientation(0,size-1,x,y);
+        if(first<0 || last>0)
+            return -1;
+        if(first==0)
+            return isVertex(1,x,y)?1:-1;
+        if(last==0)
+            return isVertex(size-1,x,y)?size-1:-1;
+        int i=wedge(x,y)+1;
+        return isVertex(i,x,y)?i:-1;
+    }
+
+    /**
+     * Returns the position i of a vertex such that the edge (v_i,v_{i+1}) is visible from (x,y), or -1 if no edge is
+     * visible, or if (x,y) is on the line of an edge incident to v_0, which means that the point can't be added.
+     * Time Complexity: O(log n), Space Complexity: O(1)
+     */
+    private int visibleEdge(long x,long y){
+        long first=orientation(0,1,x,y);
+        if(first<0)
+            return 0;
+        long last=orientation(0,size-1,x,y);
+        if(last>0)
+            return size-1;
+        if(first==0 || last==0)
+            return -1;
+        int i=wedge(x,y);
+        return (orientation(i,i+1,x,y)<0)?i:-1;
+    }
+
+    /**
+     * Returns the position i in [1,n-2] such that (x,y) lies in the angular sector between v_i and v_{i+1} seen from
+     * v_0, i.e. the largest i such that (x,y) is strictly on the left of the line (v_0,v_i). The point must be strictly
+     * on the left of (v_0,v_1) and strictly on the right of (v_0,v_{n-1}).
+     * Time Complexity: O(log n), Space Complexity: O(1)
+     */
+    private int wedge(long x,long y){
+        int low=1,high=size-1;
+        while(high-low>1){
+            int middle=(low+high)>>>1;
+            if(orientation(0,middle,x,y)>0)
+                low=middle;
+            else
+                high=middle;
+        }
+        return low;
+    }
+
+    private boolean isVertex(int i,long x,long y){
+        return coordinates[2*i]==x && coordinates[2*i+1]==y;
+    }
+
+    private int next(int i){
+        return (i+1==size)?0:i+1;
+    }
+
+    private int previous(int i){
+        return (i==0)?size-1:i-1;
+    }
+
+    private void set(int i,Point p){
+        vertices[i]=p;
+        coordinates[2*i]=p.getCoordinate(0);
+        coordinates[2*i+1]=p.getCoordinate(1);
+    }
+
+    private void grow(){
+        Point [] v=new Point[2*vertices.length];
+        System.arraycopy(vertices,0,v,0,size);
+        vertices=v;
+        int [] c=new int[2*coordinates.length];
+        System.arraycopy(coordinates,0,c,0,2*size);
+        coordinates=c;
+    }
+
+    /**
+     * Returns twice the signed area of the triangle (v_i,v_j,(x,y)), which is positive if (x,y) is on the left of the
+     * line (v_i,v_j).
+     */
+    private long orientation(int i,int j,long x,long y){
+        return orientation(coordinates[2*i],coordinates[2*i+1],coordinates[2*j],coordinates[2*j+1],x,y);
+    }
+
+    /**
+     * Returns twice the signed area of the triangle (a,b,c). Since coordinates are non-negative ints, the differences
+     * fit in 32 bits and the result is exact.
+     * Time and Space Complexity: O(1)
+     */
+    private static long orientation(long ax,long ay,long bx,long by,long cx,long cy){
+        return (bx-ax)*(cy-ay)-(by-ay)*(cx-ax);
+    }
+}
@@ -33,47 +33,136 @@ package polytope;
 import toolkit.GaussianEliminationLite;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+/**
+ * Quickhull and incremental convex hull. An instance of Quickhull is a hull builder: it owns the work structures of the
+ * algorithm, which are reused from one operation to the next, and it doesn't keep any reference to a polytope once an
+ * operation is over. Each FullDimensionPolytope owns its builder, so that polytopes can be updated concurrently as long
+ * as each one is used by a single thread. The static methods use a builder per thread, and the polytopes they return
+ * create their own builder the first time they are updated.
+ */
 public class Quickhull {
-    private static ArrayDeque<Facet> facetsWithOutsideSet=new ArrayDeque<>();
-    private static ArrayDeque<ArrayList<Point>> outsideSets=new ArrayDeque<>();
-    private static HashSet<Facet> visible=new HashSet<>();
-    private static ArrayList<Facet> modified=new ArrayList<>();
-    private static ArrayList<Ridge> frontier=new ArrayList<>();
-    private static FullDimensionPolytope tmpVar;
+    private static final int WALK_THRESHOLD=32; //below this number of facets, testing every facet is as fast as walking.
+    private static final int PARALLEL_THRESHOLD=4096; //below this number of points, hulls are computed sequentially.
+    private static final ThreadLocal<Quickhull> builders=ThreadLocal.withInitial(Quickhull::new);
+
+    private ArrayDeque<Facet> facetsWithOutsideSet=new ArrayDeque<>();
+    private HashSet<Facet> visible=new HashSet<>();
+    private ArrayList<Facet> visibleInOrder=new ArrayList<>();
+    private ArrayList<Facet> modified=new ArrayList<>();
+    private ArrayList<Ridge> frontier=new ArrayList<>();
+    private FullDimensionPolytope tmpVar;
+    private int [] block=new int[0]; //coordinates of the points being partitioned.
+    private int [] order=new int[0]; //positions in the partitioned list of the points stored in block.
+    private int [] sides=new int[0];
+    private int [] tested=new int[0]; //tested[id]==testMark if the vertex id has been tested by absorbedPoint.
+    private int testMark;
+    private int [] absorbed=new int[0]; //ids of the vertices found by absorbedPoint.
+    private int absorbedCount;
+    private Quickhull auxiliary; //builder of the hulls computed while this one is in use, created on first use.
+
+    /**
+     * Creates a hull builder with empty work structures.
+     */
+    public Quickhull(){
+    }
+
+    /**
+     * Returns the builder used for the hulls computed while this builder is updating a polytope, such as the
+     * triangulations of the facets whose cones are added to the volume during an insertion.
+     * @return the auxiliary builder of this builder.
+     */
+    Quickhull getAuxiliary(){
+        if(auxiliary==null)
+            auxiliary=new Quickhull();
+        return auxiliary;
+    }
+
+    /**
+     * Clears the work structures, so that they don't keep the facets of the last polytope alive.
+     */
+    private void release(){
+        facetsWithOutsideSet.clear();
+        visible.clear();
+        visibleInOrder.clear();
+        modified.clear();
+        frontier.clear();
+        tmpVar=null;
+    }
 
 
     /**
-     * Partitions the list of d-dimensional Point 'points' by assigning them to the first facet that visible from them.
-     * Worst Case Time Complexity: O(|facets|*|points|*d), Worst case Space Complexity: O(|points|)
+     * Partitions the list of d-dimensional Point 'points' by assigning them to the outside set of the first facet that
+     * is visible from them. Facets whose outside set was empty are added to facetsWithOutsideSet.
+     * The coordinates of the points not assigned yet are kept in a flat buffer, tested against each facet in a single
+     * batch, and compacted without changing their order. When the method returns, 'points' only contains the points
+     * that are not above any facet, in their original order.
+     * Worst Case Time Complexity: O(|facets|*|points|*d), Worst case Space Complexity: O(|points|*d)
      * @param facets list of facets of the polytope.
      * @param points list of points to partition.
      */
-    private static void partition(Collection<Facet> facets,List<Point> points){
+    private void partition(Collection<Facet> facets,List<Point> points){
+        int remaining=points.size();
+        if(remaining==0)
+            return;
+        int dimension=points.get(0).getDimension();
+        if(block.length<remaining*dimension)
+            block=new int[remaining*dimension];
+        if(order.length<remaining) {
+            order = new int[remaining];
+            sides = new int[remaining];
+        }
+        for(int k=0;k<remaining;k++){
+            Point p=points.get(k);
+            order[k]=k;
+            for(int i=0;i<dimension;i++)
+                block[k*dimension+i]=p.getCoordinate(i);
+        }
         for(Facet f:facets){
-            ListIterator<Point> unseenPoints=points.listIterator();
+            if(remaining==0)
+                break;
+            f.sides(block,remaining,sides);
             ArrayList<Point> outside=new ArrayList<>();
-            while(unseenPoints.hasNext()){
-                Point p=unseenPoints.next();
-                if(f.isAbove(p)) {
-                    unseenPoints.remove();
-                    outside.add(p);
+            int kept=0;
+            for(int k=0;k<remaining;k++){
+                if(sides[k]>0)
+                    outside.add(points.get(order[k]));
+                else {
+                    if(kept!=k) {
+                        order[kept] = order[k];
+                        System.arraycopy(block, k * dimension, block, kept * dimension, dimension);
+                    }
+                    kept++;
                 }
             }
+            remaining=kept;
             if(!outside.isEmpty()){
-                facetsWithOutsideSet.add(f);
-                outsideSets.add(outside);
+                if(f.getOutsideSet()==null) {
+                    f.setOutsideSet(outside);
+                    facetsWithOutsideSet.add(f);
+                }
+                else
+                    f.getOutsideSet().addAll(outside);
             }
         }
+        ArrayList<Point> unassigned=new ArrayList<>(remaining);
+        for(int k=0;k<remaining;k++)
+            unassigned.add(points.get(order[k]));
         points.clear();
+        points.addAll(unassigned);
     }
 
-    private static void setVisibleAndFrontier(Facet f, Point p){
+    private void setVisibleAndFrontier(Facet f, Point p){
         visible.clear();
+        visibleInOrder.clear();
         frontier.clear();
         modified.clear();
         //---------------
+        f.isAbove(p); //setNewFacets reads the last visibility test of every visible facet.
         visible.add(f);
+        visibleInOrder.add(f);
         ArrayDeque<Facet> queue=new ArrayDeque<>();
         queue.add(f);
         Facet tmp,neighbor;
@@ -81,12 +170,13 @@ public class Quickhull {
             tmp=queue.remove();
             for(Ridge r:tmp.getRidges()){
                 neighbor=r.getNeighbor(tmp);
-                if(!tmpVar.getFacets().contains(neighbor))
+                if(!tmpVar.containsFacet(neighbor))
                     throw new RuntimeException("This facet should have been deleted earlier "+f+"\n"+tmp+"\n"+neighbor);
                 if (neighbor.isAbove(p)) {
                     if (!visible.contains(neighbor)) {
                         //System.out.println("Ajout de la facette visible "+neighbor+" à partir de "+tmp);
                         visible.add(neighbor);
+                        visibleInOrder.add(neighbor);
                         queue.add(neighbor);
                     }
                 }
@@ -95,10 +185,11 @@ public class Quickhull {
         }
     }
 
-    private static List<Facet> setNewFacets(Point p){
-        ArrayList<Point> points;
+    private List<Facet> setNewFacets(Point p){
         ArrayList<Facet> res = new ArrayList<>();
         Facet v,nv;
+        VertexTable table=tmpVar.getPoints();
+        int id=table.insert(p);
         for(Ridge r:frontier){
             if(r.first.isAbove(p)){
                 v=r.first;
@@ -109,9 +200,7 @@ public class Quickhull {
                 nv=r.first;
             }
             if(!nv.lastPointOnTheHyperplane()) {
-                points= (ArrayList<Point>) r.getPoints().clone();
-                points.add(p);
-                Facet f = new Facet(points, v.getInsidePoint());
+                Facet f = tmpVar.newFacet(Face.insert(r.getVertices(),id), v.getInsidePoint());
                 res.add(f);
                 //System.out.println("ici on remplace la facette "+v+" connectée à "+r.getNeighbor(v));
                 r.replaceNeighbor(v,f);
@@ -121,119 +210,377 @@ public class Quickhull {
             else{
                 if(!v.lastPointOnTheHyperplane()){
                     //System.out.println("ici on supprime "+r+ " qui relie "+v+ " et "+nv);
-                    nv.addPoint(p);
-                    modified.add(nv);
+                    if(tmpVar.addVertex(nv,id)) //nv may share several ridges with visible facets: it is modified once.
+                        modified.add(nv);
                     nv.removeNeighbor(r);
                     v.removeNeighbor(r);
                 }
                 else {
-                    r.getFirst().addPoint(p);
-                    r.getSecond().addPoint(p);
-                    r.addPoint(p);
+                    tmpVar.addVertex(r.getFirst(),id);
+                    tmpVar.addVertex(r.getSecond(),id);
+                    r.addVertex(id);
                 }
             }
         }
         return res;
     }
 
-    private static boolean absorbedPoint(FullDimensionPolytope fdp,Point newP) {
-        ArrayList<Point> points=fdp.getPoints();
-        Collection<Facet> facets= fdp.getFacets();
-        for(Point p:points){
-            boolean b=false;
-            for(Facet f:facets){
-                if(f.getPoints().contains(p) && !visible.contains(f) && !f.isPointOnTheHyperplane(newP)) {
-                    b = true;
-                    break;
+    private static boolean isHigher(Hyperplane h,Point a,Point b){
+        int c;
+        try {
+            c = Long.compare(h.longValueAt(a), h.longValueAt(b));
+        } catch (ArithmeticException e){
+            c = h.valueAt(a).compareTo(h.valueAt(b));
+        }
+        return c>0 || (c==0 && Point.compare(a,b)>0);
+    }
+
+    /**
+     * Checks whether an extremal point of the polytope would be inside the polytope after the insertion of newP: every
+     * facet containing it is visible from newP or contains newP. Such a vertex belongs to a visible facet, so only the
+     * vertices of the visible facets are tested, with the incident facets maintained by the polytope.
+     * The ids of these vertices are stored in absorbed, and the search stops at the first one unless all of them are
+     * required.
+     * Time Complexity: O(sum over the vertices v of the visible facets of |incident facets of v|*d)
+     * @param fdp a polytope whose visible facets from newP have been computed.
+     * @param newP a d-dimensional point outside the polytope.
+     * @param all true if every vertex that would not be extremal anymore has to be found.
+     * @return true if a vertex of the polytope would not be extremal anymore.
+     */
+    private boolean absorbedPoint(FullDimensionPolytope fdp,Point newP,boolean all) {
+        absorbedCount=0;
+        int bound=fdp.getPoints().getIdBound();
+        if(tested.length<bound)
+            tested=Arrays.copyOf(tested,Math.max(bound,2*tested.length));
+        if(++testMark==Integer.MAX_VALUE) {
+            Arrays.fill(tested,0);
+            testMark=1;
+        }
+        for(Facet v:visibleInOrder) {
+            for(int id:v.getVertices()) {
+                if(tested[id]==testMark)
+                    continue;
+                tested[id]=testMark;
+                boolean b = false;
+                for (Facet f : fdp.getIncidentFacets(id)) {
+                    if (!visible.contains(f) && !f.isPointOnTheHyperplane(newP)) {
+                        b = true;
+                        break;
+                    }
+                }
+                if (!b) {
+                    if(absorbedCount==absorbed.length)
+                        absorbed=Arrays.copyOf(absorbed,Math.max(4,2*absorbed.length));
+                    absorbed[absorbedCount++]=id;
+                    if(!all)
+                        return true;
                 }
             }
-            if(!b)
-                return true;
         }
-        return false;
+        return absorbedCount>0;
     }
 
 
-    private static void convexHull(FullDimensionPolytope res, List<Point> points, int dimension){
+    /**
+     * Conflict-graph Quickhull: every point outside the current polytope belongs to the outside set of one visible facet.
+     * The most distant point of an outside set is inserted, and only the points of the facets destroyed by the insertion
+     * are assigned again, to the facets created or modified by the insertion. An inserted point may put vertices of the
+     * polytope inside the new polytope: they only belong to facets containing the inserted point, and are removed from them.
+     * Expected Time Complexity: O(n log n) in dimensions 2 and 3, for points in general position.
+     * @param res a polytope.
+     * @param points the points to add to the polytope.
+     */
+    private void convexHull(FullDimensionPolytope res, List<Point> points){
         tmpVar=res;
-        StringBuilder sb=new StringBuilder();
+        facetsWithOutsideSet.clear();
         partition(res.getFacets(),points);
 
+        ArrayList<Facet> targets=new ArrayList<>();
+        ArrayList<Point> orphans=new ArrayList<>();
         while(!facetsWithOutsideSet.isEmpty()){
             Facet f=facetsWithOutsideSet.remove();
-            ArrayList<Point> outside=outsideSets.remove();
-            if(!res.getFacets().contains(f))
-                partition(res.getFacets(), outside);
-            else {
-                Point p = f.extractMostDistantPoint(outside);
-                //System.out.println("Point à ajouter "+p);
-                setVisibleAndFrontier(f, p);
-                List<Facet> newFacets = setNewFacets(p);
-                res.addNeighbors(newFacets, modified);
-                res.addExtremalPointAndReplaceFacets(p, newFacets, visible);
-                //partition(newFacets, outside);
-                partition(res.getFacets(), outside);
+            ArrayList<Point> outside=f.getOutsideSet();
+            if(outside==null) //The facet was destroyed after it had been added to the queue.
+                continue;
+            Point p = f.extractMostDistantPoint(outside);
+            setVisibleAndFrontier(f, p);
+            absorbedPoint(res,p,true);
+            List<Facet> newFacets = setNewFacets(p);
+            res.addNeighbors(newFacets, modified);
+            res.replaceFacets(newFacets, visible);
+            for(int k=0;k<absorbedCount;k++)
+                res.absorbVertex(absorbed[k]);
+            orphans.clear();
+            for(Facet v:visibleInOrder){
+                if(v.getOutsideSet()!=null){
+                    orphans.addAll(v.getOutsideSet());
+                    v.setOutsideSet(null);
+                }
             }
+            targets.clear();
+            targets.addAll(newFacets);
+            targets.addAll(modified);
+            partition(targets,orphans); //An orphan which is not above a new or modified facet is inside the polytope.
         }
     }
 
+    /**
+     * Computes the convex hull of a list of points. The first d+1 affinely independent points of the list form the
+     * initial simplex, and the other ones are added by the conflict-graph Quickhull.
+     * Time Complexity: O(|points|*d^3) for the simplex, plus the cost of convexHull.
+     * @param points a list of d-dimensional points, which is emptied.
+     * @param dimension the dimension of the points.
+     * @return the convex hull of the points.
+     */
     public static FullDimensionPolytope quickHull(ArrayList<Point> points, int dimension) {
-        FullDimensionPolytope res=new FullDimensionPolytope(dimension);
+        FullDimensionPolytope res=builders.get().build(points,dimension,null);
+        if(res==null)
+            throw new RuntimeException("The points are not full-dimensional");
+        return res;
+    }
+
+    /**
+     * Same as quickHull, using the work structures of this builder. The resulting polytope is updated with this builder.
+     * @param points a list of d-dimensional points, which is emptied.
+     * @param dimension the dimension of the points.
+     * @return the convex hull of the points, or null if they don't contain d+1 affinely independent points.
+     */
+    public FullDimensionPolytope build(ArrayList<Point> points, int dimension) {
+        return build(points,dimension,this);
+    }
+
+    /**
+     * Same as quickHull, using the work structures of this builder.
+     * @param points a list of d-dimensional points, which is emptied.
+     * @param dimension the dimension of the points.
+     * @param owner the builder of the resulting polytope, or null if it creates its own.
+     * @return the convex hull of the points, or null if they don't contain d+1 affinely independent points.
+     */
+    private FullDimensionPolytope build(ArrayList<Point> points, int dimension, Quickhull owner) {
+        FullDimensionPolytope res=new FullDimensionPolytope(dimension,owner);
         ArrayList<Point> firsts=new ArrayList<>();
-        StringBuilder sb=new StringBuilder();
-        int numberOfTest=points.size()-dimension-1;
-        for(int i=0;i<=numberOfTest;i++) {
-            if(firsts.size()==dimension+1){
-                points.add(firsts.remove(0));
-                firsts.add(points.remove(0));
+        ArrayList<Point> others=new ArrayList<>(points.size());
+        for(Point p:points){
+            if(firsts.size()<dimension+1){
+                firsts.add(p);
+                if(GaussianEliminationLite.getRank(firsts)==firsts.size())
+                    continue;
+                firsts.remove(firsts.size()-1);
             }
-            else {
-                for(int j=0;j<dimension+1;j++)
-                    firsts.add(points.remove(0));
+            others.add(p);
+        }
+        points.clear();
+        if(firsts.size()<dimension+1)
+            return null;
+        makeExtremal(firsts,others,dimension);
+        res.createSimplex(firsts);
+        try {
+            convexHull(res, others);
+        } finally {
+            release();
+        }
+        return res;
+    }
+
+    /**
+     * Replaces each vertex of the simplex by the point which is the most distant from the opposite facet, the largest
+     * one in the lexicographic order in case of equality. Such a point is an extremal point of the convex hull of all
+     * the points, and the simplex stays full-dimensional.
+     * Time Complexity: O(|points|*d^2) in dimensions 2 and 3, Space Complexity: O(d^2)
+     * @param firsts the d+1 affinely independent vertices of the simplex.
+     * @param others the other points, which receive the replaced vertices.
+     * @param dimension the dimension of the points.
+     */
+    private static void makeExtremal(ArrayList<Point> firsts, ArrayList<Point> others, int dimension){
+        int [] coordinates=new int[dimension*dimension];
+        int [] ids=new int[dimension];
+        for(int k=0;k<dimension;k++)
+            ids[k]=k;
+        for(int i=0;i<=dimension;i++){
+            int l=0;
+            for(int j=0;j<=dimension;j++){
+                if(j==i)
+                    continue;
+                Point q=firsts.get(j);
+                for(int k=0;k<dimension;k++)
+                    coordinates[l++]=q.getCoordinate(k);
             }
-            if (GaussianEliminationLite.getRank(firsts) == (dimension + 1)) {
-                res.createSimplex(firsts);
-                //convexHull(res, points, dimension);
-                slowConvexHull(res,points);
-                return res;
+            Hyperplane h=Hyperplane.through(coordinates,dimension,ids);
+            Point vertex=firsts.get(i);
+            if(h.side(vertex)<0)
+                h=h.opposite();
+            int bestIndex=-1;
+            Point best=vertex;
+            for(int k=0;k<others.size();k++){
+                Point q=others.get(k);
+                if(isHigher(h,q,best)){
+                    best=q;
+                    bestIndex=k;
+                }
+            }
+            if(bestIndex>=0){
+                others.set(bestIndex,vertex);
+                firsts.set(i,best);
             }
         }
-        throw new RuntimeException("Is this ever gonna end? ");
     }
 
-    private static void slowConvexHull(FullDimensionPolytope res, List<Point> points){
-        StringBuilder sb=new StringBuilder();
-        for(Point p:points)
-            sb.append(p);
-        for(Point p:points){
-            if(!incrementalConvexHull(res,p)) {
-                throw new RuntimeException("Et bin même pas \n"+sb.toString()+"\n"+p);
+    /**
+     * Computes the convex hull of a list of points with the common ForkJoinPool. The points are sorted and cut into
+     * slabs, whose hulls are computed in parallel, and the hull of the union of their extremal points is then computed
+     * sequentially. Below PARALLEL_THRESHOLD points, the hull is computed sequentially.
+     * @param points a list of d-dimensional points, which is not modified.
+     * @param dimension the dimension of the points.
+     * @return the convex hull of the points.
+     */
+    public static FullDimensionPolytope parallelQuickHull(List<Point> points, int dimension) {
+        ArrayList<Point> sorted=new ArrayList<>(points);
+        if(sorted.size()>=PARALLEL_THRESHOLD) {
+            sorted.sort(Point::compare);
+            sorted = ForkJoinPool.commonPool().invoke(new ExtremalPointsTask(sorted, 0, sorted.size(), dimension));
+        }
+        return quickHull(sorted,dimension);
+    }
+
+    /**
+     * Computes a subset of a slab of points containing all its extremal points.
+     */
+    private static class ExtremalPointsTask extends RecursiveTask<ArrayList<Point>> {
+        private static final long serialVersionUID = 1L;
+        private final List<Point> points;
+        private final int from;
+        private final int to;
+        private final int dimension;
+
+        ExtremalPointsTask(List<Point> pPoints,int pFrom,int pTo,int pDimension){
+            points=pPoints;
+            from=pFrom;
+            to=pTo;
+            dimension=pDimension;
+        }
+
+        @Override
+        protected ArrayList<Point> compute() {
+            if(to-from<=PARALLEL_THRESHOLD){
+                ArrayList<Point> slab=new ArrayList<>(points.subList(from,to));
+                FullDimensionPolytope hull=builders.get().build(new ArrayList<>(slab),dimension,null);
+                return (hull==null)?slab:new ArrayList<>(hull.getPoints());
             }
+            int middle=(from+to)>>>1;
+            ExtremalPointsTask left=new ExtremalPointsTask(points,from,middle,dimension);
+            left.fork();
+            ArrayList<Point> res=new ExtremalPointsTask(points,middle,to,dimension).compute();
+            res.addAll(left.join());
+            return res;
         }
     }
 
+    /**
+     * Looks for a facet visible from p by walking on the facets of the polytope. Each facet is seen as the cone between
+     * itself and an interior point c of the polytope: the walk goes from the hint facet to the cone containing the ray
+     * from c to p, crossing at each step a ridge whose hyperplane through c separates the current cone from p.
+     * If the cone containing the ray is reached and its facet is not visible, p is inside the polytope.
+     * If the polytope has few facets, or if the walk cannot be run or takes too many steps, every facet is tested.
+     * Time Complexity: O(number of visited facets*d) in dimensions 2 and 3, once the hyperplanes through c are computed.
+     * @param fdp a polytope.
+     * @param p a d-dimensional point.
+     * @return a facet visible from p, or null if p is not outside the polytope.
+     */
+    private static Facet locate(FullDimensionPolytope fdp,Point p){
+        int dimension=p.getDimension();
+        int [] center=fdp.getCenter();
+        int [] scaled=new int[dimension];
+        try {
+            for (int i = 0; i < dimension; i++)
+                scaled[i] = Math.multiplyExact(dimension + 1, p.getCoordinate(i));
+        } catch (ArithmeticException e){
+            center=null;
+        }
+        if(center!=null && fdp.getFacets().size()>=WALK_THRESHOLD) {
+            Facet f = fdp.getHint();
+            int maxSteps=fdp.getFacets().size();
+            for (int step = 0; step <= maxSteps; step++) {
+                if (f.isAbove(p)) {
+                    fdp.setHint(f);
+                    return f;
+                }
+                Facet next = null;
+                for (Ridge r : f.getRidges()) {
+                    Hyperplane h = r.getSidePlane(center);
+                    if (h == null)
+                        return scan(fdp, p);
+                    int side = h.side(scaled, 0);
+                    if ((r.first == f) ? side > 0 : side < 0) {
+                        next = r.getNeighbor(f);
+                        break;
+                    }
+                }
+                if (next == null) {
+                    fdp.setHint(f);
+                    return null;
+                }
+                f = next;
+            }
+        }
+        return scan(fdp,p);
+    }
+
+    /**
+     * Returns the first facet of the polytope visible from p.
+     * Time Complexity: O(|facets|*d), Space Complexity: O(1)
+     * @param fdp a polytope.
+     * @param p a d-dimensional point.
+     * @return the first facet of the polytope visible from p, or null if p is not outside the polytope.
+     */
+    private static Facet scan(FullDimensionPolytope fdp,Point p){
+        for(Facet f:fdp.getFacets())
+            if(f.isAbove(p))
+                return f;
+        return null;
+    }
+
+    /**
+     * Adds the point p to the polytope fdp, unless p is not outside fdp or an extremal point of fdp would not be extremal
+     * anymore.
+     * @param fdp a polytope.
+     * @param p a d-dimensional point.
+     * @return true if p has been added, false otherwise.
+     */
     public static boolean incrementalConvexHull(FullDimensionPolytope fdp,Point p){
-        List<Point> list=new ArrayList<>();
+        return fdp.getBuilder().insert(fdp,p);
+    }
+
+    /**
+     * Same as incrementalConvexHull, using the work structures of this builder.
+     * @param fdp a polytope.
+     * @param p a d-dimensional point.
+     * @return true if p has been added, false otherwise.
+     */
+    public boolean insert(FullDimensionPolytope fdp,Point p){
         List<Facet> newFacets;
-        list.add(p);
-        tmpVar=fdp;
-        partition(fdp.getFacets(),list); //Assign the point to a facet that's visible from it
-        if(facetsWithOutsideSet.isEmpty())
-            return false;
-        setVisibleAndFrontier(facetsWithOutsideSet.remove(),outsideSets.remove().get(0)); //Compute all visibile Facets and the frontier.
-        if(absorbedPoint(fdp,p)) {
-            //System.out.println(p + " est absorbant");
+        Facet f=locate(fdp,p); //Find a facet that's visible from the point
+        if(f==null)
             return false;
-        }
-
-        if(visible.size()==fdp.getFacets().size())
-            throw new RuntimeException("Ici");
+        tmpVar=fdp;
+        try {
+            setVisibleAndFrontier(f,p); //Compute all visibile Facets and the frontier.
+            if(absorbedPoint(fdp,p,false)) {
+                //System.out.println(p + " est absorbant");
+                return false;
+            }
 
-        newFacets = setNewFacets(p);
-        fdp.addNeighbors(newFacets,modified); //Connect new and modified facets
-        fdp.addExtremalPointAndReplaceFacets(p, newFacets, visible); //Remove visible facets.
+            if(visible.size()==fdp.getFacets().size())
+                throw new RuntimeException("Ici");
+            fdp.addCones(visible,p);
 
-        return true;
+            newFacets = setNewFacets(p);
+            fdp.addNeighbors(newFacets,modified); //Connect new and modified facets
+            fdp.replaceFacets(newFacets, visible); //Remove visible facets.
+            fdp.recycle(visible);
+            return true;
+        } finally {
+            release();
+        }
     }
 
 
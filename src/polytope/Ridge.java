@@ -30,11 +30,11 @@
 
 package polytope;
 
-import java.util.ArrayList;
-
-public class Ridge extends LatticePolytope{
+public class Ridge extends Face{
     Facet first;
     Facet second;
+    private Hyperplane sidePlane; //hyperplane through the ridge and the center of the polytope.
+    private int [] sidePlaneCenter; //center for which sidePlane was computed.
 
 
     /**
@@ -81,21 +81,86 @@ public class Ridge extends LatticePolytope{
         return true;
     }
 
+    /**
+     * Returns the hyperplane through the ridge and the point center/(d+1), oriented so that the first facet is below it
+     * and the second one above it. The hyperplane is computed on the points scaled by d+1, so that its coefficients are
+     * integers, and is kept until the center or the ridge changes.
+     * Time Complexity: O(1) if the hyperplane was already computed, O(d^3) otherwise. Space Complexity: O(d^2)
+     * @param center d+1 times a point in the interior of the polytope.
+     * @return the hyperplane, or null if the ridge doesn't contain d-1 points or if a scaled coordinate doesn't fit in an int.
+     */
+    Hyperplane getSidePlane(int [] center){
+        if(sidePlaneCenter==center)
+            return sidePlane;
+        sidePlane=null;
+        sidePlaneCenter=center;
+        if(vertices.length!=dimension-1)
+            return null;
+        int w=0;
+        while(w<first.vertices.length && containsVertex(first.vertices[w])) w++;
+        if(w==first.vertices.length)
+            return null;
+        int [] buffer=new int[(dimension+1)*dimension];
+        int [] ids=new int[dimension];
+        try {
+            for (int k = 0; k < dimension + 1; k++) {
+                int id = (k < dimension - 1) ? vertices[k] : first.vertices[w];
+                for (int i = 0; i < dimension; i++)
+                    buffer[k * dimension + i] = (k == dimension - 1) ? center[i] : Math.multiplyExact(dimension + 1, table.getCoordinate(id, i));
+                if (k < dimension)
+                    ids[k] = k;
+            }
+        } catch (ArithmeticException e){
+            return null;
+        }
+        Hyperplane h=Hyperplane.through(buffer,dimension,ids);
+        if(h.side(buffer,dimension*dimension)>0)
+            h=h.opposite();
+        sidePlane=h;
+        return sidePlane;
+    }
+
+    @Override
+    boolean addVertex(int id) {
+        sidePlaneCenter=null;
+        return super.addVertex(id);
+    }
+
+    @Override
+    void removeVertex(int id) {
+        super.removeVertex(id);
+        sidePlaneCenter=null;
+    }
+
     @Override
     public int hashCode() {
         return super.hashCode();
     }
 
     /**
-     * Construct a ridge, which connects facets f1 and f2, whose list of points pPoints was computed previously
-     * and is equal to the intersection of f1.points and f2.points.
-     * @param pPoints list of points, computed previously and equal to the intersection of f1.points and f2.points.
+     * Construct a ridge, which connects facets f1 and f2, whose sorted list of ids pVertices was computed previously
+     * and is equal to the intersection of f1.vertices and f2.vertices.
+     * @param pVertices sorted list of ids, computed previously and equal to the intersection of f1.vertices and f2.vertices.
+     * @param f1 a facet of a d-dimensional polytope.
+     * @param f2 a facet of a d-dimensional polytope.
+     */
+    public Ridge(int [] pVertices, Facet f1, Facet f2) {
+        super(f1.table,pVertices);
+        first=f1;
+        second=f2;
+    }
+
+    /**
+     * Reuses a ridge released by a polytope to connect the facets f1 and f2.
+     * @param pVertices sorted list of ids, equal to the intersection of f1.vertices and f2.vertices.
      * @param f1 a facet of a d-dimensional polytope.
      * @param f2 a facet of a d-dimensional polytope.
      */
-    public Ridge(ArrayList<Point> pPoints, Facet f1, Facet f2) {
+    void reset(int [] pVertices, Facet f1, Facet f2) {
+        reset(f1.table,pVertices);
         first=f1;
         second=f2;
-        points=pPoints;
+        sidePlane=null;
+        sidePlaneCenter=null;
     }
 }
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package polytope;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Stores the extremal points of a polytope in a struct-of-arrays layout: the coordinates of the vertex whose id is i
+ * are stored contiguously in coordinates[i*d..(i+1)*d-1]. Ids are stable as long as the vertex is in the table, and the
+ * id of a removed vertex is reused by the next insertion.
+ * The live ids are also kept in a dense array, which is the order in which the table is iterated. Removing a vertex moves
+ * the last live id to its position, so the iteration order is not preserved by removals.
+ * Membership is answered by an open-addressing hash index (linear probing) which maps the hashcode of a point to its id,
+ * so that contains, add and remove run in expected constant time.
+ */
+public class VertexTable extends AbstractCollection<Point> {
+    private static final int INITIAL_CAPACITY=16;
+
+    private final int dimension;
+    private int [] coordinates;
+    private Point [] vertices;
+    private int [] positions;
+    private int [] ids;
+    private int size=0;
+    private int [] freeIds;
+    private int numberOfFreeIds=0;
+    private int numberOfAllocatedIds=0;
+    private int [] hashes;
+    private int [] index;
+
+    /**
+     * Creates an empty table of pDimension-dimensional points.
+     * @param pDimension the dimension of the points.
+     */
+    public VertexTable(int pDimension){
+        dimension=pDimension;
+        coordinates=new int[INITIAL_CAPACITY*dimension];
+        vertices=new Point[INITIAL_CAPACITY];
+        positions=new int[INITIAL_CAPACITY];
+        ids=new int[INITIAL_CAPACITY];
+        freeIds=new int[INITIAL_CAPACITY];
+        hashes=new int[INITIAL_CAPACITY];
+        index=new int[2*INITIAL_CAPACITY];
+        Arrays.fill(index,-1);
+    }
+
+    /**
+     * Returns the dimension of the points in the table.
+     * @return the dimension of the points in the table.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the buffer containing the coordinates of the vertices. The i-th coordinate of the vertex whose id is id
+     * is stored at position id*d+i. Slots of removed vertices contain garbage.
+     * @return the buffer containing the coordinates of the vertices.
+     */
+    public int [] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Returns the i-th coordinate of a vertex.
+     * @param id the id of a vertex.
+     * @param i the index of the coordinate.
+     * @return the i-th coordinate of the vertex.
+     */
+    public int getCoordinate(int id,int i){
+        return coordinates[id*dimension+i];
+    }
+
+    /**
+     * Returns the point whose id is given.
+     * @param id the id of a vertex in the table.
+     * @return the point whose id is given, or null if the id is free.
+     */
+    public Point getPoint(int id){
+        return vertices[id];
+    }
+
+    /**
+     * Returns the id of the index-th vertex, in the iteration order.
+     * @param index a position between 0 and size()-1.
+     * @return the id of the index-th vertex.
+     */
+    public int getId(int index){
+        return ids[index];
+    }
+
+    /**
+     * Returns the index-th vertex, in the iteration order.
+     * @param index a position between 0 and size()-1.
+     * @return the index-th vertex.
+     */
+    public Point get(int index){
+        return vertices[ids[index]];
+    }
+
+    /**
+     * Returns the largest id ever given by the table plus one. Every id is smaller than this bound.
+     * @return an upper bound on the ids of the table.
+     */
+    public int getIdBound(){
+        return numberOfAllocatedIds;
+    }
+
+    /**
+     * Adds a point to the table, reusing the id of a removed vertex if there is one.
+     * The point must not already be in the table, which is not checked: the polytopes of the package only insert points
+     * they know to be new, and other callers go through add.
+     * Amortized Time Complexity: O(d), Space Complexity: O(d)
+     * @param p a d-dimensional point.
+     * @return the id of p in the table.
+     */
+    int insert(Point p){
+        int id;
+        if(numberOfFreeIds>0)
+            id=freeIds[--numberOfFreeIds];
+        else {
+            if(numberOfAllocatedIds==vertices.length)
+                grow();
+            id=numberOfAllocatedIds++;
+        }
+        int base=id*dimension;
+        for(int i=0;i<dimension;i++)
+            coordinates[base+i]=p.getCoordinate(i);
+        vertices[id]=p;
+        hashes[id]=p.hashCode();
+        positions[id]=size;
+        ids[size++]=id;
+        int mask=index.length-1;
+        int i=slot(hashes[id],mask);
+        while(index[i]>=0)
+            i=(i+1)&mask;
+        index[i]=id;
+        return id;
+    }
+
+    /**
+     * Removes the vertex whose id is given. Its id will be reused by a future insertion.
+     * Time and Space Complexity: O(1)
+     * @param id the id of a vertex in the table.
+     */
+    public void removeId(int id){
+        int mask=index.length-1;
+        int i=slot(hashes[id],mask);
+        while(index[i]!=id)
+            i=(i+1)&mask;
+        //Backward shift deletion: moves back the entries of the probe sequence that follows the freed slot.
+        int j=i;
+        while(true){
+            j=(j+1)&mask;
+            if(index[j]<0)
+                break;
+            int k=slot(hashes[index[j]],mask);
+            if((i<=j)?(i<k && k<=j):(i<k || k<=j))
+                continue;
+            index[i]=index[j];
+            i=j;
+        }
+        index[i]=-1;
+        int pos=positions[id];
+        int last=ids[--size];
+        ids[pos]=last;
+        positions[last]=pos;
+        positions[id]=-1;
+        vertices[id]=null;
+        freeIds[numberOfFreeIds++]=id;
+    }
+
+    /**
+     * Computes the id of a point using the hash index.
+     * Expected Time Complexity: O(d), Space Complexity: O(1)
+     * @param p a d-dimensional point.
+     * @return the id of p in the table, or -1 if p is not in the table.
+     */
+    public int idOf(Point p){
+        int h=p.hashCode();
+        int mask=index.length-1;
+        int i=slot(h,mask);
+        int id;
+        while((id=index[i])>=0){
+            if(vertices[id]==p || (hashes[id]==h && sameCoordinates(id,p)))
+                return id;
+            i=(i+1)&mask;
+        }
+        return -1;
+    }
+
+    private boolean sameCoordinates(int id,Point p){
+        int base=id*dimension;
+        for(int i=0;i<dimension;i++)
+            if(coordinates[base+i]!=p.getCoordinate(i))
+                return false;
+        return true;
+    }
+
+    private static int slot(int h,int mask){
+        h*=0x9E3779B9;
+        return (h^(h>>>16))&mask;
+    }
+
+    /**
+     * Copies the ids of the vertices, except the one given as a parameter, into a tabular.
+     * @param excluded the id of a vertex, or -1.
+     * @return a tabular containing the ids of every vertex but excluded.
+     */
+    public int [] idsExcept(int excluded){
+        int [] res=new int[(excluded<0)?size:size-1];
+        int j=0;
+        for(int k=0;k<size;k++)
+            if(ids[k]!=excluded)
+                res[j++]=ids[k];
+        return res;
+    }
+
+    /**
+     * Adds a point to the table, unless it already belongs to it.
+     * Expected Time Complexity: O(d), Space Complexity: O(d)
+     * @param p a d-dimensional point.
+     * @return true if p has been added, false if it already belonged to the table.
+     */
+    @Override
+    public boolean add(Point p) {
+        if(idOf(p)>=0)
+            return false;
+        insert(p);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof Point) && idOf((Point)o)>=0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if(!(o instanceof Point))
+            return false;
+        int id=idOf((Point)o);
+        if(id<0)
+            return false;
+        removeId(id);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Point> iterator() {
+        return new Iterator<Point>() {
+            private int index=0;
+
+            @Override
+            public boolean hasNext() {
+                return index<size;
+            }
+
+            @Override
+            public Point next() {
+                if(index>=size)
+                    throw new NoSuchElementException();
+                return vertices[ids[index++]];
+            }
+        };
+    }
+
+    private void grow(){
+        int capacity=vertices.length*2;
+        coordinates=Arrays.copyOf(coordinates,capacity*dimension);
+        vertices=Arrays.copyOf(vertices,capacity);
+        positions=Arrays.copyOf(positions,capacity);
+        ids=Arrays.copyOf(ids,capacity);
+        freeIds=Arrays.copyOf(freeIds,capacity);
+        hashes=Arrays.copyOf(hashes,capacity);
+        index=new int[2*capacity];
+        Arrays.fill(index,-1);
+        int mask=index.length-1;
+        for(int k=0;k<size;k++){
+            int i=slot(hashes[ids[k]],mask);
+            while(index[i]>=0)
+                i=(i+1)&mask;
+            index[i]=ids[k];
+        }
+    }
+}
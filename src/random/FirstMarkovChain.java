@@ -30,63 +30,51 @@
 
 package random;
 
-import org.omg.Messaging.SYNC_WITH_TRANSPORT;
 import polytope.*;
-import polytope.Point;
 
-import java.awt.*;
 import java.util.ArrayList;
 
 public class FirstMarkovChain extends MarkovChain {
-    private FullDimensionPolytope state;
+    private DynamicPolytope state;
 
     public FirstMarkovChain(int pDim, int bSize) {
         super(pDim, bSize);
     }
 
+    /**
+     * Starts the chain from a random simplex. Polygons and three-dimensional polytopes are handled by dedicated
+     * implementations.
+     * @return the initial polytope.
+     */
     @Override
-    public FullDimensionPolytope initialize() {
-        state=new FullDimensionPolytope(dimension);
+    public DynamicPolytope initialize() {
+        if(dimension==2)
+            state=new Polygon();
+        else if(dimension==3)
+            state=new HalfEdgePolytope();
+        else
+            state=new FullDimensionPolytope(dimension);
         ArrayList<Point> points = new ArrayList<>();
         do {
             points.clear();
             for (int i = 0; i <= dimension; i++) {
-                Point p=rpg.randomPoint(dimension, boxSize);
+                Point p=rpg.randomPoint(box);
                 if(!points.contains(p))
                     points.add(p);
                 else
                     i--;
             }
         }while (!state.createSimplex(points));
-        System.gc();
         return state;
     }
 
     @Override
-    public FullDimensionPolytope nextStep() {
-        Point p=rpg.randomPoint(dimension,boxSize);
-        if(state.containsExtremalPoint(p)) {
-            if(state.staysFullDimensionAfterDeletion(p)){
-                //System.out.println("Je supprime " +p+ " "+state.getPoints().size()+" "+state.getFacets().size());
-                state.getPoints().remove(p);
-                int size=state.getPoints().size();
-                String s=state.toString();
-                state = Quickhull.quickHull(state.getPoints(),dimension);
-                if(state.getPoints().size()!=size) {
-                    StringBuilder sb=new StringBuilder();
-                    for (Facet f2 : state.getFacets()) {
-                        sb.append(f2 + " et ses ridges ");
-                        for (Ridge r : f2.getRidges()) {
-                            sb.append(r + " - ");
-                        }
-                        sb.append("\n");
-                    }
-                    throw new RuntimeException("Convex hull should contains exactly " + size + " points after removing " + p + "but instead contains " + state.getPoints().size() + "\n" + s + "\n" + state+"\n"+sb.toString());
-                }
-            }
-        }
+    public DynamicPolytope nextStep() {
+        Point p=rpg.randomPoint(box);
+        if(state.containsExtremalPoint(p))
+            state.removeExtremalPoint(p);
         else
-            Quickhull.incrementalConvexHull(state, p);
+            state.addExtremalPoint(p);
         return state;
     }
 }
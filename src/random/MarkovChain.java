@@ -32,17 +32,20 @@ package random;
 
 import polytope.AbstractPolytope;
 import polytope.FullDimensionPolytope;
+import polytope.LatticeBox;
 import polytope.Polytope;
 
 public abstract class MarkovChain {
     int dimension;
     int boxSize;
     RandomPointGenerator rpg=new RandomPointGenerator();
+    LatticeBox box;
 
 
     MarkovChain(int pDim, int bSize) {
         dimension=pDim;
         boxSize=bSize;
+        box=new LatticeBox(pDim,bSize);
     }
 
 
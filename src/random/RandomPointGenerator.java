@@ -30,20 +30,36 @@
 
 package random;
 
+import polytope.LatticeBox;
 import polytope.Point;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 public class RandomPointGenerator {
     private Random rn = new Random();
+    private int [] buffer=new int[0];
 
     public Point randomPoint(int dimension, int boxSize){
-        ArrayList<Integer> coord=new ArrayList<>();
+        int [] coord=new int[dimension];
         for(int i=0;i<dimension;i++)
-            coord.add(rn.nextInt(boxSize+1));
+            coord[i]=rn.nextInt(boxSize+1);
         return new Point(coord);
     }
 
+    /**
+     * Draws a point of the box uniformly at random and returns its canonical instance,
+     * so that no Point is allocated once the point has already been drawn, as long as the box has room for it.
+     * @param box the box in which the point is drawn.
+     * @return the canonical instance of a random point of the box.
+     */
+    public Point randomPoint(LatticeBox box){
+        int [] coord=buffer;
+        if(coord.length!=box.getDimension())
+            coord=buffer=new int[box.getDimension()];
+        for(int i=0;i<coord.length;i++)
+            coord[i]=rn.nextInt(box.getBoxSize()+1);
+        return box.intern(coord);
+    }
+
 
 }
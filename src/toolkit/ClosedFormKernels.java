@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018. Julien David.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package toolkit;
+
+import polytope.Point;
+
+import java.util.List;
+
+/**
+ * Straight-line integer kernels for dimensions 2 and 3: the hyperplane through d points is given by a 2x2 or 3x3
+ * cross-product determinant, and the affine rank of a set of points is obtained by looking for a point outside the
+ * line or plane spanned by the previous ones. Every operation is checked for overflow; when one occurs, the kernels
+ * return a value telling the caller to use the general Gaussian elimination.
+ */
+public class ClosedFormKernels {
+    static final int OVERFLOW=-1;
+
+    /**
+     * Computes the hyperplane through d points of the plane or the space, stored in a flat coordinate buffer.
+     * Time and Space Complexity: O(1)
+     * @param coordinates a flat buffer of coordinates.
+     * @param dimension the dimension of the points, 2 or 3.
+     * @param ids the ids of at least d points.
+     * @return a tabular (alpha_1,...,alpha_d,beta), divided by the gcd of its coefficients, such that the points x of the
+     * hyperplane satisfy alpha.x=beta. Returns null if the dimension is not 2 or 3, if the points are affinely dependent or
+     * if an overflow occurs.
+     */
+    static long [] hyperplane(int [] coordinates,int dimension,int [] ids){
+        try {
+            if (dimension == 2) {
+                int a = ids[0] * 2, b = ids[1] * 2;
+                return hyperplane2D(coordinates[a], coordinates[a + 1], coordinates[b], coordinates[b + 1]);
+            }
+            if (dimension == 3) {
+                int a = ids[0] * 3, b = ids[1] * 3, c = ids[2] * 3;
+                return hyperplane3D(coordinates[a], coordinates[a + 1], coordinates[a + 2],
+                        coordinates[b], coordinates[b + 1], coordinates[b + 2],
+                        coordinates[c], coordinates[c + 1], coordinates[c + 2]);
+            }
+        } catch (ArithmeticException e){
+            //Falls back to the general elimination.
+        }
+        return null;
+    }
+
+    private static long [] hyperplane2D(long x0,long y0,long x1,long y1){
+        long a=y0-y1;
+        long b=x1-x0;
+        if(a==0 && b==0)
+            return null;
+        return reduce(new long[]{a,b,Math.addExact(Math.multiplyExact(a,x0),Math.multiplyExact(b,y0))});
+    }
+
+    private static long [] hyperplane3D(long x0,long y0,long z0,long x1,long y1,long z1,long x2,long y2,long z2){
+        long ux=x1-x0, uy=y1-y0, uz=z1-z0;
+        long vx=x2-x0, vy=y2-y0, vz=z2-z0;
+        long a=Math.subtractExact(Math.multiplyExact(uy,vz),Math.multiplyExact(uz,vy));
+        long b=Math.subtractExact(Math.multiplyExact(uz,vx),Math.multiplyExact(ux,vz));
+        long c=Math.subtractExact(Math.multiplyExact(ux,vy),Math.multiplyExact(uy,vx));
+        if(a==0 && b==0 && c==0)
+            return null;
+        long beta=Math.addExact(Math.addExact(Math.multiplyExact(a,x0),Math.multiplyExact(b,y0)),Math.multiplyExact(c,z0));
+        return reduce(new long[]{a,b,c,beta});
+    }
+
+    private static long [] reduce(long [] v){
+        long g=0;
+        for(long x:v){
+            long y=Math.abs(x);
+            while(y!=0){
+                long t=g%y;
+                g=y;
+                y=t;
+            }
+        }
+        if(g>1)
+            for(int i=0;i<v.length;i++)
+                v[i]/=g;
+        return v;
+    }
+
+    /**
+     * Computes the affine rank plus one of a set of points of the plane or the space, stored in a flat coordinate buffer.
+     * Time Complexity: O(count), Space Complexity: O(1)
+     * @param coordinates a flat buffer of coordinates.
+     * @param dimension the dimension of the points, 2 or 3.
+     * @param ids the ids of the points.
+     * @param count the number of ids to read in the tabular ids.
+     * @return the affine rank of the points plus one, or OVERFLOW if an overflow occurs.
+     */
+    static int rank(int [] coordinates,int dimension,int [] ids,int count){
+        if(count==0)
+            return 0;
+        int o=ids[0]*dimension;
+        int k=1;
+        long [] u=new long[dimension];
+        long [] v=new long[dimension];
+        //Looks for a second point.
+        for(;k<count;k++){
+            if(difference(coordinates,ids[k]*dimension,o,dimension,u))
+                break;
+        }
+        if(k==count)
+            return 1;
+        try {
+            //Looks for a point outside the line.
+            long [] n=new long[3];
+            for (k++; k < count; k++) {
+                difference(coordinates, ids[k] * dimension, o, dimension, v);
+                if (cross(u, v, dimension, n))
+                    break;
+            }
+            if (k == count)
+                return 2;
+            if (dimension == 2)
+                return 3;
+            //Looks for a point outside the plane.
+            for (k++; k < count; k++) {
+                difference(coordinates, ids[k] * dimension, o, dimension, v);
+                if (dot(n, v) != 0)
+                    return 4;
+            }
+            return 3;
+        } catch (ArithmeticException e){
+            return OVERFLOW;
+        }
+    }
+
+    /**
+     * Same as rank on a flat coordinate buffer, on a list of points.
+     */
+    static int rank(List<Point> points,int dimension){
+        if(points.isEmpty())
+            return 0;
+        int [] coordinates=new int[points.size()*dimension];
+        int [] ids=new int[points.size()];
+        for(int k=0;k<ids.length;k++){
+            ids[k]=k;
+            for(int i=0;i<dimension;i++)
+                coordinates[k*dimension+i]=points.get(k).getCoordinate(i);
+        }
+        return rank(coordinates,dimension,ids,ids.length);
+    }
+
+    private static boolean difference(int [] coordinates,int a,int b,int dimension,long [] res){
+        boolean nonZero=false;
+        for(int i=0;i<dimension;i++) {
+            res[i] = (long) coordinates[a + i] - coordinates[b + i];
+            nonZero|=res[i]!=0;
+        }
+        return nonZero;
+    }
+
+    private static boolean cross(long [] u,long [] v,int dimension,long [] n){
+        if(dimension==2) {
+            n[0] = Math.subtractExact(Math.multiplyExact(u[0], v[1]), Math.multiplyExact(u[1], v[0]));
+            return n[0] != 0;
+        }
+        n[0]=Math.subtractExact(Math.multiplyExact(u[1],v[2]),Math.multiplyExact(u[2],v[1]));
+        n[1]=Math.subtractExact(Math.multiplyExact(u[2],v[0]),Math.multiplyExact(u[0],v[2]));
+        n[2]=Math.subtractExact(Math.multiplyExact(u[0],v[1]),Math.multiplyExact(u[1],v[0]));
+        return n[0]!=0 || n[1]!=0 || n[2]!=0;
+    }
+
+    private static long dot(long [] n,long [] v){
+        return Math.addExact(Math.addExact(Math.multiplyExact(n[0],v[0]),Math.multiplyExact(n[1],v[1])),Math.multiplyExact(n[2],v[2]));
+    }
+}
@@ -36,26 +36,51 @@ import polytope.Point;
 import java.math.BigInteger;
 import java.util.List;
 
+/**
+ * Gaussian elimination over the integers, used to compute the normal vector of a facet and the affine rank of a set of
+ * points. The elimination is first run on longs, where every operation is checked for overflow. If an overflow occurs,
+ * the computation is run again on BigIntegers. In dimensions 2 and 3, the closed forms of ClosedFormKernels are used
+ * instead of the elimination whenever they don't overflow. The matrices are taken from the workspace of the current
+ * thread, so that eliminations can run concurrently.
+ */
 public class GaussianEliminationLite {
     private int columns;
     private int lines;
     private BigInteger [] x=null;
+    private long [] longX=null;
     private int lastDependantColumn;
     private int rank;
 
     private GaussianEliminationLite(List<Point> points) {
-        if(points.size()==1)
-            rank=1;
+        if(points.size()<=1)
+            rank=points.size();
         else {
             columns = points.size();
             lines = points.get(0).getDimension() + 1;
-            BigInteger[][] pA = MatrixFactory.getMatrix(lines, columns);
+            long[][] input = MatrixFactory.getWorkspace().getInputMatrix(lines, columns);
             for (int i = 0; i < (lines - 1); i++)
                 for (int j = 0; j < columns; j++)
-                    pA[i][j] = BigInteger.valueOf(points.get(j).getCoordinate(i));
+                    input[i][j] = points.get(j).getCoordinate(i);
             for (int j = 0; j < columns; j++)
-                pA[lines - 1][j] = BigInteger.valueOf(1);
-            GaussJordan(pA, true);
+                input[lines - 1][j] = 1;
+            eliminate(input, true);
+        }
+    }
+
+    private GaussianEliminationLite(int [] coordinates,int dimension,int [] ids,int count) {
+        if(count<=1)
+            rank=count;
+        else {
+            columns = count;
+            lines = dimension + 1;
+            long[][] input = MatrixFactory.getWorkspace().getInputMatrix(lines, columns);
+            for (int j = 0; j < columns; j++) {
+                int base = ids[j] * dimension;
+                for (int i = 0; i < (lines - 1); i++)
+                    input[i][j] = coordinates[base + i];
+                input[lines - 1][j] = 1;
+            }
+            eliminate(input, true);
         }
     }
 
@@ -63,16 +88,60 @@ public class GaussianEliminationLite {
         int i,j;
         columns = dim+1;
         lines= dim;
-        BigInteger [][]pA=MatrixFactory.getMatrix(lines,columns);
+        long [][] input=MatrixFactory.getWorkspace().getInputMatrix(lines,columns);
         for(i=0;i<lines;i++) {
             for (j = 0; j < (columns-1); j++)
-                pA[i][j] = BigInteger.valueOf(points.get(i).getCoordinate(j));
-            pA[i][j]=BigInteger.valueOf(-1);
+                input[i][j] = points.get(i).getCoordinate(j);
+            input[i][j]=-1;
         }
-        GaussJordan(pA,false);
-        divideLinesByPgcd(pA);
+        eliminate(input,false);
+    }
 
-        solve(pA);
+    private GaussianEliminationLite(int [] coordinates,int dimension,int [] ids) {
+        columns = dimension+1;
+        lines= dimension;
+        long [][] input=MatrixFactory.getWorkspace().getInputMatrix(lines,columns);
+        for(int i=0;i<lines;i++) {
+            int base = ids[i] * dimension;
+            for (int j = 0; j < dimension; j++)
+                input[i][j] = coordinates[base + j];
+            input[i][dimension]=-1;
+        }
+        eliminate(input,false);
+    }
+
+    private GaussianEliminationLite(long [] solution) {
+        columns = solution.length;
+        longX = solution;
+    }
+
+    /**
+     * Runs the elimination on a copy of the input matrix, using longs, and runs it again using BigIntegers if
+     * an overflow occurs. If computeDim is false, the kernel of the matrix is also computed.
+     * @param input the matrix to eliminate, which is not modified.
+     * @param computeDim true if we only need the rank of the matrix.
+     */
+    private void eliminate(long [][] input,boolean computeDim){
+        MatrixFactory workspace=MatrixFactory.getWorkspace();
+        long [][] lA=workspace.getLongMatrix(lines,columns);
+        for(int i=0;i<lines;i++)
+            System.arraycopy(input[i],0,lA[i],0,columns);
+        try {
+            GaussJordan(lA, computeDim);
+            if(!computeDim)
+                solve(lA);
+        }
+        catch (ArithmeticException e){
+            longX=null;
+            BigInteger [][] pA=workspace.getMatrix(lines,columns);
+            for(int i=0;i<lines;i++)
+                for(int j=0;j<columns;j++)
+                    pA[i][j]=BigInteger.valueOf(input[i][j]);
+            GaussJordan(pA, computeDim);
+            if(!computeDim)
+                solve(pA);
+            workspace.releaseMatrix(lines,columns);
+        }
     }
 
     private int getRank(){
@@ -91,36 +160,58 @@ public class GaussianEliminationLite {
     private void divideVectorByPgcd(BigInteger [] line,BigInteger pgcd)
     {
         for(int i=0;i<line.length;i++)
-            line[i].divide(pgcd);
+            line[i]=line[i].divide(pgcd);
     }
 
-    private void divideLinesByPgcd(BigInteger[][] pA){
-        BigInteger pgcd;
-        for(BigInteger [] line:pA){
-            pgcd= pgcdVector(line);
-            if(!pgcd.equals(BigInteger.ZERO))
-                divideVectorByPgcd(line,pgcd);
+    private static long pgcd(long a,long b){
+        a=Math.abs(a);
+        b=Math.abs(b);
+        while(b!=0){
+            long t=a%b;
+            a=b;
+            b=t;
         }
+        return a;
+    }
+
+    private void divideVectorByPgcd(long [] line)
+    {
+        long res=0;
+        for(long v:line)
+            res=pgcd(res,v);
+        if(res>1)
+            for(int i=0;i<line.length;i++)
+                line[i]/=res;
     }
 
 
+    /**
+     * Fraction-free (Bareiss) elimination: each update of a line is divided exactly by the previous pivot, so every entry of
+     * the matrix stays equal to a minor of the input matrix and its size is bounded by Hadamard's inequality.
+     * If computeDim is true, only the lines below the pivot are eliminated. Otherwise, the lines above are also eliminated
+     * and, at the end, every pivot is equal to the last one.
+     * @param pA the matrix to eliminate.
+     * @param computeDim true if we only need the rank of the matrix.
+     */
     private void GaussJordan(BigInteger[][] pA,boolean computeDim) {
         lastDependantColumn=columns-1;
         int j;
-        BigInteger t;
+        BigInteger t,pivot,previous=BigInteger.ONE;
         for (j = 0,rank=0; j < columns; j++) {
 
             int i = rank;
-            while(i<lines && pA[i][j].equals(BigInteger.ZERO)) i++;
+            while(i<lines && pA[i][j].signum()==0) i++;
             if(i<lines) {
                 swap(pA, rank, i);
+                pivot=pA[rank][j];
                 for (i = (computeDim)?rank + 1:0; i < lines; i++) {
-                    if(computeDim || i!=rank) {
+                    if(i!=rank) {
                         t=pA[i][j];
                         for (int m = 0; m < columns; m++)
-                            pA[i][m] = pA[i][m].multiply(pA[rank][j]).subtract(t.multiply(pA[rank][m]));
+                            pA[i][m] = pA[i][m].multiply(pivot).subtract(t.multiply(pA[rank][m])).divide(previous);
                     }
                 }
+                previous=pivot;
                 rank++;
             }
             else
@@ -129,28 +220,69 @@ public class GaussianEliminationLite {
 
     }
 
+    /**
+     * Same as GaussJordan on BigIntegers, on longs.
+     * @throws ArithmeticException if an intermediate value overflows.
+     */
+    private void GaussJordan(long[][] pA,boolean computeDim) {
+        lastDependantColumn=columns-1;
+        int j;
+        long t,pivot,previous=1;
+        for (j = 0,rank=0; j < columns; j++) {
 
+            int i = rank;
+            while(i<lines && pA[i][j]==0) i++;
+            if(i<lines) {
+                swap(pA, rank, i);
+                pivot=pA[rank][j];
+                for (i = (computeDim)?rank + 1:0; i < lines; i++) {
+                    if(i!=rank) {
+                        t=pA[i][j];
+                        for (int m = 0; m < columns; m++)
+                            pA[i][m] = Math.subtractExact(Math.multiplyExact(pA[i][m],pivot),Math.multiplyExact(t,pA[rank][m]))/previous;
+                    }
+                }
+                previous=pivot;
+                rank++;
+            }
+            else
+                lastDependantColumn=j;
+        }
 
-    private BigInteger diagProduct(BigInteger[][] pA,int l){
-        BigInteger prod=BigInteger.ONE;
-        for(int i=0;i<l;i++)
-            prod=prod.multiply(pA[i][i]);
-        return prod;
     }
 
     public BigInteger getBeta() {
-        return x[columns-1];
+        return getSolution()[columns-1];
     }
 
     public BigInteger [] getSolution(){
+        if(x==null && longX!=null){
+            x=new BigInteger[columns];
+            for(int i=0;i<columns;i++)
+                x[i]=BigInteger.valueOf(longX[i]);
+        }
         return x;
     }
 
+    /**
+     * Returns the solution as a tabular of longs, whose last element is beta.
+     * @return the solution as a tabular of longs, or null if one of its values doesn't fit in a long.
+     */
+    public long [] getLongSolution(){
+        return longX;
+    }
+
+    /**
+     * Computes a vector of the kernel of the eliminated matrix and divides it by the gcd of its coefficients.
+     * Since every pivot is equal to the last one after the elimination, the free variable is set to this pivot and
+     * the divisions are exact.
+     * @param pA the eliminated matrix.
+     */
     private void solve(BigInteger[][] pA){
         int i,l=lastDependantColumn;
         if(x==null) {
             x = new BigInteger[columns];
-            x[l] = diagProduct(pA, l);
+            x[l] = (l==0)?BigInteger.ONE:pA[l-1][l-1];
             for (i = l - 1; i >= 0; i--)
                 x[i] = pA[i][l].negate().multiply(x[l]).divide(pA[i][i]);
             for (i = l + 1; i < columns; i++)
@@ -158,20 +290,170 @@ public class GaussianEliminationLite {
             BigInteger pgcd = pgcdVector(x);
             if (!pgcd.equals(BigInteger.ZERO))
                 divideVectorByPgcd(x, pgcd);
+            longX=toLong(x);
         }
     }
 
+    private void solve(long[][] pA){
+        int i,l=lastDependantColumn;
+        long [] res = new long[columns];
+        res[l] = (l==0)?1:pA[l-1][l-1];
+        for (i = l - 1; i >= 0; i--)
+            res[i] = Math.negateExact(Math.multiplyExact(pA[i][l],res[l]))/pA[i][i];
+        for (i = l + 1; i < columns; i++)
+            res[i] = 0;
+        divideVectorByPgcd(res);
+        longX=res;
+    }
+
+    private static long [] toLong(BigInteger [] v){
+        long [] res=new long[v.length];
+        for(int i=0;i<v.length;i++) {
+            if(v[i].bitLength()>=64)
+                return null;
+            res[i] = v[i].longValue();
+        }
+        return res;
+    }
+
     public void inverse() {
+        getSolution();
         for(int i=0;i<x.length;i++)
             x[i]=x[i].negate();
+        longX=toLong(x);
     }
 
 
+    /**
+     * Computes the hyperplane through the d first points of a flat coordinate buffer, such as the one of a VertexTable.
+     * Time Complexity: O(1) in dimensions 2 and 3, O(d^3) otherwise.
+     * @param coordinates a flat buffer of coordinates.
+     * @param dimension the dimension of the points.
+     * @param ids the ids of the points, at least dimension of them.
+     * @return an object whose solution (alpha_1,...,alpha_d,beta) satisfies alpha.x=beta for every point x of the hyperplane.
+     */
+    public static GaussianEliminationLite normalVector(int [] coordinates,int dimension,int [] ids){
+        long [] solution=ClosedFormKernels.hyperplane(coordinates,dimension,ids);
+        if(solution!=null)
+            return new GaussianEliminationLite(solution);
+        return new GaussianEliminationLite(coordinates,dimension,ids);
+    }
+
     public static int getRank(List<Point> points){
+        int dimension=points.isEmpty()?0:points.get(0).getDimension();
+        if(dimension==2 || dimension==3) {
+            int rank = ClosedFormKernels.rank(points, dimension);
+            if (rank != ClosedFormKernels.OVERFLOW)
+                return rank;
+        }
         GaussianEliminationLite gel=new GaussianEliminationLite(points);
         return gel.getRank();
     }
 
+    /**
+     * Computes the affine rank of points stored in a flat coordinate buffer, such as the one of a VertexTable.
+     * The coordinates of the point whose id is id are read at positions id*dimension..(id+1)*dimension-1.
+     * @param coordinates a flat buffer of coordinates.
+     * @param dimension the dimension of the points.
+     * @param ids the ids of the points whose rank is computed.
+     * @param count the number of ids to read in the tabular ids.
+     * @return the affine rank of the points, plus one.
+     */
+    public static int getRank(int [] coordinates,int dimension,int [] ids,int count){
+        if(dimension==2 || dimension==3){
+            int rank = ClosedFormKernels.rank(coordinates,dimension,ids,count);
+            if (rank != ClosedFormKernels.OVERFLOW)
+                return rank;
+        }
+        GaussianEliminationLite gel=new GaussianEliminationLite(coordinates,dimension,ids,count);
+        return gel.getRank();
+    }
+
+    /**
+     * Computes d! times the volume of the simplex whose vertices are apex and d points of a flat coordinate buffer, i.e.
+     * the absolute value of det(p_1-apex,...,p_d-apex). The determinant is computed by the fraction-free elimination on
+     * checked longs, and again on BigIntegers if an overflow occurs.
+     * Time Complexity: O(d^3), Space Complexity: O(1) with longs.
+     * @param coordinates a flat buffer of coordinates.
+     * @param dimension the dimension of the points.
+     * @param ids the ids of d points of the buffer.
+     * @param apex a d-dimensional point.
+     * @return d! times the volume of the simplex.
+     */
+    public static BigInteger simplexVolume(int [] coordinates,int dimension,int [] ids,Point apex){
+        MatrixFactory workspace=MatrixFactory.getWorkspace();
+        long [][] input=MatrixFactory.getWorkspace().getInputMatrix(dimension,dimension);
+        for(int i=0;i<dimension;i++) {
+            int base = ids[i] * dimension;
+            for (int j = 0; j < dimension; j++)
+                input[i][j] = coordinates[base + j] - (long) apex.getCoordinate(j);
+        }
+        long [][] lA=workspace.getLongMatrix(dimension,dimension);
+        for(int i=0;i<dimension;i++)
+            System.arraycopy(input[i],0,lA[i],0,dimension);
+        try {
+            return BigInteger.valueOf(determinant(lA,dimension)).abs();
+        }
+        catch (ArithmeticException e){
+            BigInteger [][] pA=workspace.getMatrix(dimension,dimension);
+            for(int i=0;i<dimension;i++)
+                for(int j=0;j<dimension;j++)
+                    pA[i][j]=BigInteger.valueOf(input[i][j]);
+            BigInteger res=determinant(pA,dimension).abs();
+            workspace.releaseMatrix(dimension,dimension);
+            return res;
+        }
+    }
+
+    /**
+     * Computes the determinant of the n first lines and columns of a matrix, which is modified, by the fraction-free
+     * (Bareiss) elimination.
+     * Time Complexity: O(n^3), Space Complexity: O(1)
+     * @throws ArithmeticException if an operation overflows.
+     */
+    private static long determinant(long [][] pA,int n){
+        long previous=1;
+        int sign=1;
+        for(int k=0;k<n-1;k++){
+            if(pA[k][k]==0){
+                int r=k+1;
+                while(r<n && pA[r][k]==0) r++;
+                if(r==n)
+                    return 0;
+                swap(pA,k,r);
+                sign=-sign;
+            }
+            for(int i=k+1;i<n;i++)
+                for(int j=k+1;j<n;j++)
+                    pA[i][j]=Math.subtractExact(Math.multiplyExact(pA[i][j],pA[k][k]),Math.multiplyExact(pA[i][k],pA[k][j]))/previous;
+            previous=pA[k][k];
+        }
+        return sign*pA[n-1][n-1];
+    }
+
+    /**
+     * Same as determinant on a matrix of longs, using BigIntegers.
+     */
+    private static BigInteger determinant(BigInteger [][] pA,int n){
+        BigInteger previous=BigInteger.ONE;
+        int sign=1;
+        for(int k=0;k<n-1;k++){
+            if(pA[k][k].signum()==0){
+                int r=k+1;
+                while(r<n && pA[r][k].signum()==0) r++;
+                if(r==n)
+                    return BigInteger.ZERO;
+                swap(pA,k,r);
+                sign=-sign;
+            }
+            for(int i=k+1;i<n;i++)
+                for(int j=k+1;j<n;j++)
+                    pA[i][j]=pA[i][j].multiply(pA[k][k]).subtract(pA[i][k].multiply(pA[k][j])).divide(previous);
+            previous=pA[k][k];
+        }
+        return (sign<0)?pA[n-1][n-1].negate():pA[n-1][n-1];
+    }
+
     // swap rows A[i][] and A[j][] in 2D array A[][]
     private static void swap(BigInteger[][] A, int i, int j) {
         BigInteger[] temp = A[i];
@@ -179,5 +461,11 @@ public class GaussianEliminationLite {
         A[j] = temp;
     }
 
+    private static void swap(long[][] A, int i, int j) {
+        long[] temp = A[i];
+        A[i] = A[j];
+        A[j] = temp;
+    }
+
 
 }
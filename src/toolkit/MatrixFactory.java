@@ -32,14 +32,83 @@ package toolkit;
 
 import java.math.BigInteger;
 
+/**
+ * Scratch workspace of the eliminations: it keeps the matrices of longs and BigIntegers between two eliminations so that
+ * they are not allocated again. A workspace must not be shared between threads: each thread gets its own through
+ * getWorkspace().
+ */
 public class MatrixFactory {
-    //private static long [][] matrix=new long[3][3];
-    private static BigInteger [][] matrix=new BigInteger[3][3];
+    private static final ThreadLocal<MatrixFactory> workspaces=ThreadLocal.withInitial(MatrixFactory::new);
+
+    private BigInteger [][] matrix;
+
+    private long [][] longMatrix;
+    private long [][] inputMatrix;
+
+    private MatrixFactory(){
+        this(2);
+    }
+
+    /**
+     * Creates a workspace whose matrices are large enough to compute the normal vector of a facet in dimension 'dimension'.
+     * The matrices grow later if a larger one is requested.
+     * @param dimension the dimension of the points.
+     */
+    private MatrixFactory(int dimension){
+        matrix=new BigInteger[dimension+1][dimension+1];
+        longMatrix=new long[dimension+1][dimension+1];
+        inputMatrix=new long[dimension+1][dimension+1];
+    }
 
-    public static BigInteger [][] getMatrix(int lines,int columns){
+    /**
+     * Returns the workspace of the current thread.
+     * @return the workspace of the current thread.
+     */
+    public static MatrixFactory getWorkspace(){
+        return workspaces.get();
+    }
+
+    public BigInteger [][] getMatrix(int lines,int columns){
             if(matrix.length<lines || matrix[0].length<columns)
-                matrix=new BigInteger[lines][columns];
+                matrix=new BigInteger[Math.max(lines,matrix.length)][Math.max(columns,matrix[0].length)];
             return matrix;
     }
 
+    /**
+     * Drops the references to the BigIntegers stored in the matrix returned by getMatrix, so that they can be collected.
+     * Time Complexity: O(lines*columns), Space Complexity: O(1)
+     * @param lines the number of lines used.
+     * @param columns the number of columns used.
+     */
+    public void releaseMatrix(int lines,int columns){
+        for(int i=0;i<lines;i++)
+            for(int j=0;j<columns;j++)
+                matrix[i][j]=null;
+    }
+
+    /**
+     * Returns a matrix of longs used as a working copy by the elimination.
+     * @param lines the minimal number of lines.
+     * @param columns the minimal number of columns.
+     * @return a matrix with at least 'lines' lines and 'columns' columns.
+     */
+    public long [][] getLongMatrix(int lines,int columns){
+        if(longMatrix.length<lines || longMatrix[0].length<columns)
+            longMatrix=new long[Math.max(lines,longMatrix.length)][Math.max(columns,longMatrix[0].length)];
+        return longMatrix;
+    }
+
+    /**
+     * Returns a matrix of longs in which the input of the elimination is stored, so that it can be run again
+     * on BigIntegers if an overflow occurs.
+     * @param lines the minimal number of lines.
+     * @param columns the minimal number of columns.
+     * @return a matrix with at least 'lines' lines and 'columns' columns.
+     */
+    public long [][] getInputMatrix(int lines,int columns){
+        if(inputMatrix.length<lines || inputMatrix[0].length<columns)
+            inputMatrix=new long[Math.max(lines,inputMatrix.length)][Math.max(columns,inputMatrix[0].length)];
+        return inputMatrix;
+    }
+
 }